@@ -1,19 +1,30 @@
 package com.elearnhub.teacher_service.Controller;
 
 import com.elearnhub.teacher_service.dto.AssignmentDTO;
+import com.elearnhub.teacher_service.dto.AssignmentStats;
+import com.elearnhub.teacher_service.dto.BatchGradeResult;
+import com.elearnhub.teacher_service.dto.GradeEntry;
 import com.elearnhub.teacher_service.dto.SubmissionDTO;
 import com.elearnhub.teacher_service.entity.Assignment;
 import com.elearnhub.teacher_service.entity.Course;
-import com.elearnhub.teacher_service.entity.User;
+import com.elearnhub.teacher_service.entity.Submission;
 import com.elearnhub.teacher_service.service.AssignmentService;
 import com.elearnhub.teacher_service.service.CourseService;
-import com.elearnhub.teacher_service.service.UserService;
+import com.elearnhub.teacher_service.service.SubmissionFileService;
+import com.elearnhub.teacher_service.security.AuthenticatedUser;
+import com.elearnhub.teacher_service.security.CurrentUser;
+import com.elearnhub.teacher_service.util.StreamingFileWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -31,20 +42,15 @@ public class AssignmentController {
     private CourseService courseService;
 
     @Autowired
-    private UserService userService;
+    private SubmissionFileService submissionFileService;
 
     // ✅ Create assignment - validates Course exists and belongs to teacher
     @PostMapping
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> createAssignment(
             @RequestBody AssignmentDTO assignmentDTO,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser teacher) {
         try {
-            // Get authenticated teacher
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             // Verify Course exists
             Optional<Course> courseOptional = courseService.getCourseById(assignmentDTO.getCourseId());
             
@@ -104,13 +110,8 @@ public class AssignmentController {
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> getSubmissionsByAssignment(
             @PathVariable Long assignmentId,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser teacher) {
         try {
-            // Get authenticated teacher
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             // Verify Assignment exists
             AssignmentDTO assignmentDTO;
             try {
@@ -149,14 +150,120 @@ public class AssignmentController {
         }
     }
 
+    // ✅ All submissions of an assignment as one ZIP, generated while it is being downloaded.
+    // Ownership is checked once up front; the archive is then streamed entry by entry.
+    @GetMapping("/{assignmentId}/submissions/archive")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> downloadSubmissionsArchive(
+            @PathVariable Long assignmentId,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            AssignmentDTO assignmentDTO;
+            try {
+                assignmentDTO = assignmentService.getAssignmentById(assignmentId);
+            } catch (RuntimeException e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Assignment not found with id: " + assignmentId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+
+            Optional<Course> courseOptional = courseService.getCourseById(assignmentDTO.getCourseId());
+            if (courseOptional.isEmpty() || !courseOptional.get().getTeacherId().equals(teacher.getId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: Assignment does not belong to this teacher");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            StreamingResponseBody body = out -> submissionFileService.writeArchive(assignmentId, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"assignment-" + assignmentId + "-submissions.zip\"")
+                    .body(body);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to build submissions archive: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Grade statistics: count, mean, stddev, min/max, histogram, approximate percentiles
+    @GetMapping("/{assignmentId}/stats")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> getAssignmentStats(
+            @PathVariable Long assignmentId,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            AssignmentDTO assignmentDTO;
+            try {
+                assignmentDTO = assignmentService.getAssignmentById(assignmentId);
+            } catch (RuntimeException e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Assignment not found with id: " + assignmentId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+
+            Optional<Course> courseOptional = courseService.getCourseById(assignmentDTO.getCourseId());
+            if (courseOptional.isEmpty() || !courseOptional.get().getTeacherId().equals(teacher.getId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: Assignment does not belong to this teacher");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            AssignmentStats stats = assignmentService.getAssignmentStats(assignmentDTO);
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to fetch statistics: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     // ✅ Save submission (for students)
+    // POST /assignments/submissions  Body: { "assignmentId": 1, "content": "..." }
+    // Creates or replaces the student's text answer; a file, if any, is attached afterwards with
+    // PUT /assignments/{assignmentId}/submission/file. A resubmission clears the previous grade.
     @PostMapping("/submissions")
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<?> saveSubmission(
             @RequestBody SubmissionDTO submissionDTO,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser student) {
         try {
-            SubmissionDTO savedSubmission = assignmentService.saveSubmission(submissionDTO);
+            if (submissionDTO.getAssignmentId() == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Assignment ID is required");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (submissionDTO.getContent() == null || submissionDTO.getContent().isBlank()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Submission content is required");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+
+            AssignmentDTO assignmentDTO;
+            try {
+                assignmentDTO = assignmentService.getAssignmentById(submissionDTO.getAssignmentId());
+            } catch (RuntimeException e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Assignment not found with id: " + submissionDTO.getAssignmentId());
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+
+            if (!courseService.isEnrolled(student.getId(), assignmentDTO.getCourseId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: You are not enrolled in this course");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            SubmissionDTO savedSubmission;
+            try {
+                savedSubmission = assignmentService.saveSubmission(
+                        submissionDTO.getAssignmentId(), student.getId(), submissionDTO.getContent());
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent first submission created the row; this one replaces it
+                savedSubmission = assignmentService.saveSubmission(
+                        submissionDTO.getAssignmentId(), student.getId(), submissionDTO.getContent());
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(savedSubmission);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -165,43 +272,101 @@ public class AssignmentController {
         }
     }
 
-    // ✅ Grade submission (for teachers)
+    // ✅ Streaming submission upload (for students)
+    // PUT /assignments/{assignmentId}/submission/file?filename=essay.pdf
+    // Body: the raw file bytes (Content-Type of the file, not multipart). The body is written
+    // straight to the submission directory while its SHA-256 and size are computed.
+    // A text answer goes to POST /assignments/submissions first - never in the query string,
+    // where a long essay overflows the request line and ends up in access logs.
+    @PutMapping("/{assignmentId}/submission/file")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<?> uploadSubmissionFile(
+            @PathVariable Long assignmentId,
+            @RequestParam String filename,
+            HttpServletRequest request,
+            @CurrentUser AuthenticatedUser student) {
+        try {
+            // Reject oversized uploads before reading a single byte when the client declares the size
+            if (request.getContentLengthLong() > submissionFileService.getMaxBytes()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "File exceeds the maximum size of " + submissionFileService.getMaxBytes() + " bytes");
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+            }
+
+            AssignmentDTO assignmentDTO;
+            try {
+                assignmentDTO = assignmentService.getAssignmentById(assignmentId);
+            } catch (RuntimeException e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Assignment not found with id: " + assignmentId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+
+            if (!courseService.isEnrolled(student.getId(), assignmentDTO.getCourseId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: You are not enrolled in this course");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            SubmissionDTO submissionDTO = submissionFileService.upload(
+                    assignmentId, student.getId(), filename, request.getInputStream());
+            return ResponseEntity.status(HttpStatus.CREATED).body(submissionDTO);
+        } catch (StreamingFileWriter.PayloadTooLargeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to upload submission: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Grade submission (for teachers) - ownership is verified before anything is written
     @PutMapping("/submissions/{submissionId}/grade")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> gradeSubmission(
             @PathVariable Long submissionId,
             @RequestBody GradeRequest gradeRequest,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser teacher) {
         try {
-            // Get authenticated teacher
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
-            // Validate grade
-            if (gradeRequest.getGrade() == null || gradeRequest.getGrade() < 0 || gradeRequest.getGrade() > 100) {
+            // Validate grade (the upper bound is the assignment's maxGrade, checked below)
+            if (gradeRequest.getGrade() == null) {
                 Map<String, String> error = new HashMap<>();
-                error.put("message", "Grade must be between 0 and 100");
+                error.put("message", "Grade is required");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
-            // Get submission to verify it exists and belongs to teacher's assignment
-            SubmissionDTO submissionDTO = assignmentService.gradeSubmission(
-                    submissionId, 
-                    gradeRequest.getGrade(), 
-                    gradeRequest.getFeedback()
-            );
+            Optional<Submission> submission = assignmentService.getSubmissionById(submissionId);
+            if (submission.isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Submission not found with id: " + submissionId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
 
             // Verify assignment belongs to teacher (security check)
-            AssignmentDTO assignmentDTO = assignmentService.getAssignmentById(submissionDTO.getAssignmentId());
+            AssignmentDTO assignmentDTO = assignmentService.getAssignmentById(submission.get().getAssignmentId());
             Optional<Course> courseOptional = courseService.getCourseById(assignmentDTO.getCourseId());
-            
+
             if (courseOptional.isEmpty() || !courseOptional.get().getTeacherId().equals(teacher.getId())) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Unauthorized: Cannot grade this submission");
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
             }
 
+            // Same range as batch grading
+            double maxGrade = assignmentDTO.getMaxGrade() != null ? assignmentDTO.getMaxGrade() : 100;
+            if (gradeRequest.getGrade() < 0 || gradeRequest.getGrade() > maxGrade) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Grade must be between 0 and " + maxGrade);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+
+            SubmissionDTO submissionDTO = assignmentService.gradeSubmission(
+                    submissionId,
+                    gradeRequest.getGrade(),
+                    gradeRequest.getFeedback()
+            );
             return ResponseEntity.ok(submissionDTO);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
@@ -214,18 +379,49 @@ public class AssignmentController {
         }
     }
 
+    // ✅ Batch grading (e.g. pasted from a spreadsheet)
+    // Body: [{ submissionId, grade, feedback }, ...]
+    // Response: { created, updated, rejected: [{ submissionId, reason }] }
+    // One ownership check for the assignment, then all grades in one transaction.
+    @PutMapping("/{assignmentId}/grades")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> gradeSubmissions(
+            @PathVariable Long assignmentId,
+            @RequestBody List<GradeEntry> grades,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            AssignmentDTO assignmentDTO;
+            try {
+                assignmentDTO = assignmentService.getAssignmentById(assignmentId);
+            } catch (RuntimeException e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Assignment not found with id: " + assignmentId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+
+            Optional<Course> courseOptional = courseService.getCourseById(assignmentDTO.getCourseId());
+            if (courseOptional.isEmpty() || !courseOptional.get().getTeacherId().equals(teacher.getId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: Assignment does not belong to this teacher");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            BatchGradeResult result = assignmentService.gradeSubmissions(assignmentDTO, grades);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to save grades: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     // ✅ Delete assignment - validates Assignment exists and belongs to teacher's course
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> deleteAssignment(
             @PathVariable Long id,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser teacher) {
         try {
-            // Get authenticated teacher
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             // Get assignment to verify it exists and belongs to teacher's course
             AssignmentDTO assignmentDTO;
             try {
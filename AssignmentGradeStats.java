@@ -0,0 +1,108 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.dto.AssignmentStats;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// ✅ Running grade statistics of one assignment, updated per grade instead of recomputed.
+// - mean/variance: Welford's running moments, with the inverse update to retract a score
+// - histogram: fixed buckets over [0, maxGrade]
+// - min/max: counts per distinct score (grades have few distinct values)
+// The current score of each submission is remembered, so setScore() is idempotent and a
+// regrade retracts exactly the old value.
+class AssignmentGradeStats {
+
+    private static final int BUCKETS = 10;
+    private static final double[] PERCENTILES = {25, 50, 75, 90};
+
+    private final Long assignmentId;
+    private final double maxGrade;
+    private final double bucketWidth;
+    private final Map<Long, Double> scoreBySubmission = new HashMap<>();
+    private final TreeMap<Double, Integer> scoreCounts = new TreeMap<>();
+    private final long[] histogram = new long[BUCKETS];
+    private long count;
+    private double mean;
+    private double m2; // Sum of squared differences from the mean
+
+    AssignmentGradeStats(Long assignmentId, double maxGrade) {
+        this.assignmentId = assignmentId;
+        this.maxGrade = maxGrade;
+        this.bucketWidth = (maxGrade > 0 ? maxGrade : 100) / BUCKETS;
+    }
+
+    // The histogram buckets are fixed to this - stats for a different maxGrade must be rebuilt
+    double maxGrade() {
+        return maxGrade;
+    }
+
+    synchronized void setScore(Long submissionId, double score) {
+        Double previous = scoreBySubmission.put(submissionId, score);
+        if (previous != null) {
+            if (previous == score) {
+                return;
+            }
+            remove(previous);
+        }
+        add(score);
+    }
+
+    private void add(double score) {
+        count++;
+        double delta = score - mean;
+        mean += delta / count;
+        m2 += delta * (score - mean);
+        histogram[bucket(score)]++;
+        scoreCounts.merge(score, 1, Integer::sum);
+    }
+
+    private void remove(double score) {
+        if (count == 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+        } else {
+            double oldMean = mean;
+            count--;
+            mean = (oldMean * (count + 1) - score) / count;
+            m2 = Math.max(0, m2 - (score - oldMean) * (score - mean));
+        }
+        histogram[bucket(score)]--;
+        scoreCounts.computeIfPresent(score, (s, n) -> n > 1 ? n - 1 : null);
+    }
+
+    private int bucket(double score) {
+        return Math.max(0, Math.min(BUCKETS - 1, (int) (score / bucketWidth)));
+    }
+
+    synchronized AssignmentStats snapshot() {
+        if (count == 0) {
+            return new AssignmentStats(assignmentId, 0, null, null, null, null, bucketWidth, new long[BUCKETS], Map.of());
+        }
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            percentiles.put("p" + (int) p, percentile(p));
+        }
+        return new AssignmentStats(assignmentId, count, mean, Math.sqrt(m2 / count),
+                scoreCounts.firstKey(), scoreCounts.lastKey(), bucketWidth, histogram.clone(), percentiles);
+    }
+
+    // Linear interpolation inside the bucket that contains the p-th percentile
+    private double percentile(double p) {
+        double rank = p / 100 * count;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (histogram[i] > 0 && seen + histogram[i] >= rank) {
+                double fraction = (rank - seen) / histogram[i];
+                double value = (i + fraction) * bucketWidth;
+                // Never report outside the observed range
+                return Math.max(scoreCounts.firstKey(), Math.min(scoreCounts.lastKey(), value));
+            }
+            seen += histogram[i];
+        }
+        return scoreCounts.lastKey();
+    }
+}
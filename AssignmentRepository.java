@@ -1,13 +1,33 @@
 package com.elearnhub.teacher_service.repository;
 
+import com.elearnhub.teacher_service.dto.StudentAssignmentItem;
 import com.elearnhub.teacher_service.entity.Assignment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
     List<Assignment> findByCourseId(Long courseId);
+
+    List<Assignment> findByCourseIdOrderByDueDateAscIdAsc(Long courseId);
+
+    // ✅ Student assignment feed in one query: every assignment of the given courses with
+    // the student's submission and grade (if any), soonest due date first
+    @Query("SELECT new com.elearnhub.teacher_service.dto.StudentAssignmentItem(" +
+           "a.id, a.title, a.description, a.dueDate, a.maxGrade, a.courseId, c.name, " +
+           "s.id, s.submittedAt, g.score, g.feedback) " +
+           "FROM Assignment a " +
+           "JOIN Course c ON c.id = a.courseId " +
+           "LEFT JOIN Submission s ON s.assignmentId = a.id AND s.studentId = :studentId " +
+           "LEFT JOIN Grade g ON g.submissionId = s.id " +
+           "WHERE a.courseId IN :courseIds " +
+           "ORDER BY a.dueDate ASC, a.id ASC")
+    List<StudentAssignmentItem> findStudentFeed(@Param("studentId") Long studentId,
+                                                @Param("courseIds") Collection<Long> courseIds);
 }
 
@@ -1,23 +1,72 @@
 package com.elearnhub.teacher_service.service;
 
 import com.elearnhub.teacher_service.dto.AssignmentDTO;
+import com.elearnhub.teacher_service.dto.AssignmentStats;
+import com.elearnhub.teacher_service.dto.BatchGradeResult;
+import com.elearnhub.teacher_service.dto.GradeEntry;
+import com.elearnhub.teacher_service.dto.Gradebook;
+import com.elearnhub.teacher_service.dto.ReviewQueueItem;
+import com.elearnhub.teacher_service.dto.ReviewQueuePage;
+import com.elearnhub.teacher_service.dto.StudentAssignmentItem;
 import com.elearnhub.teacher_service.dto.SubmissionDTO;
+import com.elearnhub.teacher_service.dto.SubmissionScore;
+import com.elearnhub.teacher_service.dto.UserSummary;
 import com.elearnhub.teacher_service.entity.Assignment;
+import com.elearnhub.teacher_service.entity.Grade;
+import com.elearnhub.teacher_service.entity.Submission;
 import com.elearnhub.teacher_service.repository.AssignmentRepository;
+import com.elearnhub.teacher_service.repository.GradeRepository;
+import com.elearnhub.teacher_service.repository.SubmissionRepository;
+import com.elearnhub.teacher_service.util.TransactionUtil;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class AssignmentService {
 
+    private static final int MAX_REVIEW_PAGE_SIZE = 200;
+    // Keyset start for the first review queue page - earlier than any submission
+    private static final LocalDateTime QUEUE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     @Autowired
     private AssignmentRepository assignmentRepository;
 
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AssignmentStatsRegistry assignmentStatsRegistry;
+
+    @Autowired
+    private BlobStore blobStore;
+
     public AssignmentDTO createAssignment(AssignmentDTO assignmentDTO) {
         Assignment assignment = new Assignment();
         assignment.setTitle(assignmentDTO.getTitle());
@@ -37,22 +86,263 @@ public class AssignmentService {
                 .collect(Collectors.toList());
     }
 
+    // ✅ All assignments across the student's courses with submission status, grade and feedback.
+    // Course ids come from StudentCourseCache; the rest is one query, already sorted by due date.
+    public List<StudentAssignmentItem> getStudentAssignmentFeed(Long studentId) {
+        Set<Long> courseIds = courseService.getCourseIdsByStudentId(studentId);
+        if (courseIds.isEmpty()) {
+            return List.of();
+        }
+        return assignmentRepository.findStudentFeed(studentId, courseIds);
+    }
+
+    // ✅ Ungraded submissions across all of the teacher's courses, oldest first.
+    // One keyset-paginated query for the page plus one count; memory is bounded by the page size.
+    public ReviewQueuePage getReviewQueue(Long teacherId, LocalDateTime afterSubmittedAt, Long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_REVIEW_PAGE_SIZE));
+        boolean firstPage = afterSubmittedAt == null || afterId == null;
+
+        // Fetch one extra row to know whether another page exists
+        List<ReviewQueueItem> rows = submissionRepository.findReviewQueuePage(
+                teacherId,
+                firstPage ? QUEUE_START : afterSubmittedAt,
+                firstPage ? 0L : afterId,
+                PageRequest.of(0, pageSize + 1));
+        long total = submissionRepository.countReviewQueue(teacherId);
+
+        if (rows.size() > pageSize) {
+            List<ReviewQueueItem> items = rows.subList(0, pageSize);
+            ReviewQueueItem last = items.get(pageSize - 1);
+            return new ReviewQueuePage(items, total, new ReviewQueuePage.Cursor(last.submittedAt(), last.submissionId()));
+        }
+        return new ReviewQueuePage(rows, total, null);
+    }
+
+    // ✅ Students x assignments matrix of a course with a fixed number of queries:
+    // roster ids (enrollment index), names (one IN query / cache), assignments, all scores.
+    public Gradebook buildGradebook(Long courseId) {
+        long[] studentIds = courseService.getCourseStudentIds(courseId);
+        Map<Long, UserSummary> students = userService.getUserSummaries(
+                Arrays.stream(studentIds).boxed().collect(Collectors.toList()));
+        String[] studentNames = new String[studentIds.length];
+        for (int i = 0; i < studentIds.length; i++) {
+            UserSummary student = students.get(studentIds[i]);
+            studentNames[i] = student != null ? student.displayName() : "Student #" + studentIds[i];
+        }
+
+        List<Assignment> assignments = assignmentRepository.findByCourseIdOrderByDueDateAscIdAsc(courseId);
+        long[] assignmentIds = new long[assignments.size()];
+        String[] titles = new String[assignments.size()];
+        LocalDateTime[] dueDates = new LocalDateTime[assignments.size()];
+        double[] maxGrades = new double[assignments.size()];
+        Map<Long, Integer> assignmentOrdinals = new HashMap<>();
+        for (int i = 0; i < assignments.size(); i++) {
+            Assignment assignment = assignments.get(i);
+            assignmentIds[i] = assignment.getId();
+            titles[i] = assignment.getTitle();
+            dueDates[i] = assignment.getDueDate();
+            maxGrades[i] = assignment.getMaxGrade() != null ? assignment.getMaxGrade() : 0;
+            assignmentOrdinals.put(assignment.getId(), i);
+        }
+
+        Gradebook gradebook = new Gradebook(courseId, studentIds, studentNames, assignmentIds, titles, dueDates, maxGrades);
+        for (SubmissionScore score : submissionRepository.findScoresByCourseId(courseId)) {
+            // studentIds is sorted - binary search gives the dense ordinal
+            int studentOrdinal = Arrays.binarySearch(studentIds, score.studentId());
+            Integer assignmentOrdinal = assignmentOrdinals.get(score.assignmentId());
+            if (studentOrdinal >= 0 && assignmentOrdinal != null) { // Skip unenrolled students
+                gradebook.record(studentOrdinal, assignmentOrdinal, score.score());
+            }
+        }
+        return gradebook;
+    }
+
+    // ✅ O(1) once built - see AssignmentStatsRegistry
+    public AssignmentStats getAssignmentStats(AssignmentDTO assignment) {
+        return assignmentStatsRegistry.getStats(assignment.getId(), assignment.getMaxGrade());
+    }
+
+    public void deleteAssignment(Long id) {
+        if (!assignmentRepository.existsById(id)) {
+            throw new RuntimeException("Assignment not found with id: " + id);
+        }
+        assignmentRepository.deleteById(id);
+        TransactionUtil.afterCommit(() -> assignmentStatsRegistry.evict(id));
+    }
+
     public AssignmentDTO getAssignmentById(Long id) {
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Assignment not found with id: " + id));
         return convertToDTO(assignment);
     }
 
-    public SubmissionDTO saveSubmission(SubmissionDTO submissionDTO) {
-        // TODO: Implement submission saving logic
-        // This will depend on your Submission entity structure
-        throw new UnsupportedOperationException("Submission feature not yet implemented");
+    // ✅ Constant number of queries regardless of submission count:
+    // submissions + grades in one join, student names in one batch (usually from the cache)
+    public List<SubmissionDTO> getSubmissionsByAssignment(Long assignmentId) {
+        List<SubmissionDTO> submissions = submissionRepository.findWithGradesByAssignmentId(assignmentId);
+
+        Map<Long, UserSummary> students = userService.getUserSummaries(submissions.stream()
+                .map(SubmissionDTO::getStudentId)
+                .collect(Collectors.toSet()));
+        for (SubmissionDTO submission : submissions) {
+            submission.setStudentName(studentDisplayName(submission.getStudentId(), students.get(submission.getStudentId())));
+        }
+        return submissions;
+    }
+
+    // ✅ Text answer: creates or replaces the student's submission without a file (a file from
+    // an earlier submission is released). A file is attached afterwards with SubmissionFileService.
+    // Caller must have checked that the student is enrolled in the assignment's course
+    public SubmissionDTO saveSubmission(Long assignmentId, Long studentId, String content) {
+        return recordSubmissionFile(assignmentId, studentId, null, content).submission();
+    }
+
+    public Optional<Submission> getSubmissionById(Long submissionId) {
+        return submissionRepository.findById(submissionId);
+    }
+
+    // What recordSubmissionFile wrote, and the file path it replaced (null if none)
+    public record RecordedSubmission(SubmissionDTO submission, String replacedFilePath) {
     }
 
+    // ✅ Creates or replaces the student's submission after its file has been stored.
+    // The row is read FOR UPDATE, so concurrent resubmissions of the same student take turns and
+    // each one replaces the path the previous one wrote. The replaced blob is released after
+    // commit; a legacy (non-blob) file is left to the caller. A concurrent first submission
+    // fails on uk_submission_assignment_student with DataIntegrityViolationException.
+    // A resubmission does not keep the old grade: it is deleted (and dropped from the assignment's
+    // stats), so the new work shows up as ungraded in the review queue.
+    public RecordedSubmission recordSubmissionFile(Long assignmentId, Long studentId, String filePath, String content) {
+        Submission submission = submissionRepository.findForUpdate(assignmentId, studentId)
+                .orElseGet(() -> new Submission(assignmentId, studentId, null, null));
+        boolean resubmission = submission.getId() != null;
+        String replacedFilePath = submission.getFilePath();
+        submission.setFilePath(filePath);
+        if (content != null) {
+            submission.setContent(content);
+        }
+        submission.setSubmittedAt(LocalDateTime.now());
+        Submission saved = submissionRepository.saveAndFlush(submission);
+
+        if (resubmission
+                && jdbcTemplate.update("DELETE FROM grade WHERE submission_id = ?", saved.getId()) > 0) {
+            TransactionUtil.afterCommit(() -> assignmentStatsRegistry.evict(assignmentId));
+        }
+
+        String replacedBlobId = replacedFilePath != null ? BlobStore.blobIdOf(replacedFilePath) : null;
+        if (replacedBlobId != null) {
+            TransactionUtil.afterCommit(() -> blobStore.release(replacedBlobId));
+        }
+
+        UserSummary student = userService.getUserSummaries(List.of(studentId)).get(studentId);
+        return new RecordedSubmission(convertSubmissionToDTO(saved, student, null), replacedFilePath);
+    }
+
+    // Caller must have checked that the teacher owns the submission's assignment
     public SubmissionDTO gradeSubmission(Long submissionId, Double grade, String feedback) {
-        // TODO: Implement grading logic
-        // This will depend on your Submission entity structure
-        throw new UnsupportedOperationException("Grading feature not yet implemented");
+        Submission submission = submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new RuntimeException("Submission not found with id: " + submissionId));
+
+        writeGrades(submission.getAssignmentId(), List.of(new GradeEntry(submissionId, grade, feedback)));
+
+        UserSummary student = userService.getUserSummaries(List.of(submission.getStudentId()))
+                .get(submission.getStudentId());
+        SubmissionDTO dto = convertSubmissionToDTO(submission, student, null);
+        dto.setGrade(grade);
+        dto.setFeedback(feedback);
+        return dto;
+    }
+
+    // ✅ Batch grading for one assignment (ownership is checked once by the caller).
+    // One query validates that the submissions belong to the assignment, one loads existing
+    // grades, then all changes go out as one JDBC batch of upserts.
+    public BatchGradeResult gradeSubmissions(AssignmentDTO assignment, List<GradeEntry> entries) {
+        double maxGrade = assignment.getMaxGrade() != null ? assignment.getMaxGrade() : 100;
+        List<BatchGradeResult.Rejected> rejected = new ArrayList<>();
+
+        // Last entry wins if a submission appears twice
+        Map<Long, GradeEntry> bySubmission = new LinkedHashMap<>();
+        for (GradeEntry entry : entries) {
+            if (entry.submissionId() == null) {
+                rejected.add(new BatchGradeResult.Rejected(null, "submissionId is required"));
+            } else if (entry.grade() == null || entry.grade() < 0 || entry.grade() > maxGrade) {
+                rejected.add(new BatchGradeResult.Rejected(entry.submissionId(), "Grade must be between 0 and " + maxGrade));
+            } else {
+                bySubmission.put(entry.submissionId(), entry);
+            }
+        }
+        if (bySubmission.isEmpty()) {
+            return new BatchGradeResult(0, 0, rejected);
+        }
+
+        Set<Long> belonging = submissionRepository.findIdsByAssignmentIdAndIdIn(assignment.getId(), bySubmission.keySet());
+        List<GradeEntry> accepted = new ArrayList<>(belonging.size());
+        for (GradeEntry entry : bySubmission.values()) {
+            if (belonging.contains(entry.submissionId())) {
+                accepted.add(entry);
+            } else {
+                rejected.add(new BatchGradeResult.Rejected(entry.submissionId(), "Submission does not belong to this assignment"));
+            }
+        }
+
+        int[] createdAndUpdated = writeGrades(assignment.getId(), accepted);
+        return new BatchGradeResult(createdAndUpdated[0], createdAndUpdated[1], rejected);
+    }
+
+    // Upserts grades of one assignment and updates its running stats after commit: returns {created, updated}.
+    // One batch of INSERT ... ON DUPLICATE KEY UPDATE on uk_grade_submission (GRADE_UNIQUE_INDEX.sql),
+    // so two teachers or a double-submitted batch can never create a second grade row; the
+    // existing grades are only read to report created vs updated.
+    private int[] writeGrades(Long assignmentId, List<GradeEntry> entries) {
+        if (entries.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        Map<Long, Double> existing = new HashMap<>();
+        for (GradeRepository.GradeScore grade : gradeRepository.findScoresBySubmissionIdIn(
+                entries.stream().map(GradeEntry::submissionId).collect(Collectors.toList()))) {
+            existing.put(grade.getSubmissionId(), grade.getScore());
+        }
+
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        int updated = 0;
+        for (GradeEntry entry : entries) {
+            rows.add(new Object[]{entry.submissionId(), entry.grade(), entry.feedback()});
+            if (existing.containsKey(entry.submissionId())) {
+                updated++;
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO grade (submission_id, score, feedback) VALUES (?, ?, ?) "
+                        + "ON DUPLICATE KEY UPDATE score = VALUES(score), feedback = VALUES(feedback)",
+                rows);
+
+        TransactionUtil.afterCommit(() -> {
+            for (GradeEntry entry : entries) {
+                assignmentStatsRegistry.recordGrade(assignmentId, entry.submissionId(), entry.grade());
+            }
+        });
+        return new int[]{entries.size() - updated, updated};
+    }
+
+    // Grade is passed in by the caller (null if ungraded) - this never queries
+    private SubmissionDTO convertSubmissionToDTO(Submission submission, UserSummary student, Grade grade) {
+        SubmissionDTO dto = new SubmissionDTO();
+        dto.setId(submission.getId());
+        dto.setAssignmentId(submission.getAssignmentId());
+        dto.setStudentId(submission.getStudentId());
+        dto.setStudentName(studentDisplayName(submission.getStudentId(), student));
+        dto.setContent(submission.getContent());
+        dto.setFilePath(submission.getFilePath());
+        dto.setSubmittedAt(submission.getSubmittedAt());
+        if (grade != null) {
+            dto.setGrade(grade.getScore());
+            dto.setFeedback(grade.getFeedback());
+        }
+        return dto;
+    }
+
+    private String studentDisplayName(Long studentId, UserSummary student) {
+        return student != null ? student.displayName() : "Student #" + studentId;
     }
 
     private AssignmentDTO convertToDTO(Assignment assignment) {
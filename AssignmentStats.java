@@ -0,0 +1,17 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.util.Map;
+
+// ✅ Grade statistics of one assignment (GET /assignments/{id}/stats)
+// histogram[i] counts scores in [i * bucketWidth, (i + 1) * bucketWidth); the last bucket includes maxGrade.
+// percentiles are interpolated from the histogram (keys: p25, p50, p75, p90).
+public record AssignmentStats(Long assignmentId,
+                              long count,
+                              Double mean,
+                              Double stddev,
+                              Double min,
+                              Double max,
+                              double bucketWidth,
+                              long[] histogram,
+                              Map<String, Double> percentiles) {
+}
@@ -0,0 +1,63 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.dto.AssignmentStats;
+import com.elearnhub.teacher_service.repository.GradeRepository;
+import com.elearnhub.teacher_service.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// ✅ assignmentId -> running grade statistics.
+// Built from the grade table the first time an assignment's stats are requested; afterwards
+// kept current by AssignmentService after each committed grade, so reading stats is O(1)
+// regardless of class size. Like the other per-node caches, entries are rebuilt after
+// ttl-seconds (grades written on another node show up within that time) and the least
+// recently viewed assignments are evicted at max-size. Stats built for a different maxGrade
+// (the assignment was edited) are rebuilt, since the histogram buckets depend on it.
+@Component
+public class AssignmentStatsRegistry {
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    private final BoundedTtlCache<Long, AssignmentGradeStats> statsByAssignment;
+
+    public AssignmentStatsRegistry(@Value("${assignment.stats-cache.max-size:2000}") int maxSize,
+                                   @Value("${assignment.stats-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.statsByAssignment = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public AssignmentStats getStats(Long assignmentId, Double maxGrade) {
+        double max = maxGrade != null ? maxGrade : 100;
+        AssignmentGradeStats stats = statsByAssignment.get(assignmentId, id -> build(id, max));
+        if (stats.maxGrade() != max) {
+            statsByAssignment.invalidate(assignmentId);
+            stats = statsByAssignment.get(assignmentId, id -> build(id, max));
+        }
+        return stats.snapshot();
+    }
+
+    // Setting a score is idempotent per submission, so applying it to stats whose build already
+    // saw the grade cannot double count. update() also keeps a build that is running right now
+    // (and may have read the table before this grade committed) from being cached.
+    public void recordGrade(Long assignmentId, Long submissionId, double score) {
+        statsByAssignment.update(assignmentId, stats -> stats.setScore(submissionId, score));
+    }
+
+    // Call after the assignment is deleted
+    public void evict(Long assignmentId) {
+        statsByAssignment.invalidate(assignmentId);
+    }
+
+    private AssignmentGradeStats build(Long assignmentId, double maxGrade) {
+        AssignmentGradeStats stats = new AssignmentGradeStats(assignmentId, maxGrade);
+        for (GradeRepository.GradeScore grade : gradeRepository.findScoresByAssignmentId(assignmentId)) {
+            if (grade.getScore() != null) {
+                stats.setScore(grade.getSubmissionId(), grade.getScore());
+            }
+        }
+        return stats;
+    }
+}
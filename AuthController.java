@@ -0,0 +1,180 @@
+package com.elearnhub.teacher_service.Controller;
+
+import com.elearnhub.teacher_service.entity.User;
+import com.elearnhub.teacher_service.security.AuthenticatedUser;
+import com.elearnhub.teacher_service.service.PasswordHashingService;
+import com.elearnhub.teacher_service.service.UserService;
+import com.elearnhub.teacher_service.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    // ✅ Login: the only request that loads the user and verifies BCrypt.
+    // The returned token carries userId/role/name, later requests are verified from it alone.
+    // Verification runs on the bounded hashing pool - the request thread is released while it waits.
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody User loginRequest) {
+        try {
+            return passwordHashingService.authenticate(loginRequest.getUsername(), loginRequest.getPassword())
+                    .<ResponseEntity<?>>thenApply(authentication -> {
+                        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+                        String token = jwtUtil.generateToken(user);
+                        return ResponseEntity.ok(new JwtResponse(token));
+                    })
+                    .exceptionally(e -> {
+                        Map<String, String> error = new HashMap<>();
+                        if (unwrap(e) instanceof AuthenticationException) {
+                            error.put("message", "Invalid username or password");
+                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+                        }
+                        error.put("message", "Login failed: " + unwrap(e).getMessage());
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+                    });
+        } catch (PasswordHashingService.CapacityExceededException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(e));
+        }
+    }
+
+    // ✅ Registration: validation runs on the request thread; BCrypt and the insert run on the
+    // bounded hashing pool (like login's user load), so the request thread is released while the
+    // hash waits in the queue and is computed.
+    @PostMapping("/register")
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User registerRequest) {
+        ResponseEntity<?> invalid = validateRegistration(registerRequest);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
+        }
+
+        try {
+            // Encode password on the hashing pool and save it there (UserService.createUser saves it as-is)
+            return passwordHashingService.encode(registerRequest.getPassword())
+                    .<ResponseEntity<?>>thenApply(encodedPassword -> {
+                        registerRequest.setPassword(encodedPassword);
+                        userService.createUser(registerRequest);
+
+                        Map<String, String> response = new HashMap<>();
+                        response.put("message", "Registration successful");
+                        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+                    })
+                    .exceptionally(e -> {
+                        Map<String, String> error = new HashMap<>();
+                        if (unwrap(e) instanceof DataIntegrityViolationException) {
+                            // Lost a race with a signup the Bloom filter had not seen (another node)
+                            error.put("message", "Username already exists");
+                            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+                        }
+                        error.put("message", "Registration failed: " + unwrap(e).getMessage());
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+                    });
+        } catch (PasswordHashingService.CapacityExceededException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(e));
+        }
+    }
+
+    // Checks and normalizes the request; returns the error response, or null if it can be saved
+    private ResponseEntity<?> validateRegistration(User registerRequest) {
+        try {
+            // Validate required fields
+            if (registerRequest.getUsername() == null || registerRequest.getUsername().trim().isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Username is required");
+                return ResponseEntity.badRequest().body(error);
+            }
+
+            if (registerRequest.getPassword() == null || registerRequest.getPassword().trim().isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Password is required");
+                return ResponseEntity.badRequest().body(error);
+            }
+
+            if (registerRequest.getEmail() == null || registerRequest.getEmail().trim().isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Email is required");
+                return ResponseEntity.badRequest().body(error);
+            }
+
+            // Stored trimmed; case and accents are handled by the column's collation
+            registerRequest.setUsername(registerRequest.getUsername().trim());
+
+            // Check if username already exists
+            if (userService.existsByUsername(registerRequest.getUsername())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Username already exists");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+            }
+
+            // Set default role to "TEACHER" if not provided
+            if (registerRequest.getRole() == null || registerRequest.getRole().trim().isEmpty()) {
+                registerRequest.setRole("TEACHER");
+            }
+            // Self-registration never grants ADMIN (it unlocks /users and the bulk import)
+            registerRequest.setRole(registerRequest.getRole().trim().toUpperCase());
+            if (!"STUDENT".equals(registerRequest.getRole()) && !"TEACHER".equals(registerRequest.getRole())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Role must be STUDENT or TEACHER");
+                return ResponseEntity.badRequest().body(error);
+            }
+
+            return null;
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Registration failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // 429 with Retry-After so clients back off instead of hammering the login endpoint
+    private ResponseEntity<?> tooManyRequests(PasswordHashingService.CapacityExceededException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    private Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    // Inner class for login response
+    public static class JwtResponse {
+        private String token;
+
+        public JwtResponse(String token) {
+            this.token = token;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public void setToken(String token) {
+            this.token = token;
+        }
+    }
+}
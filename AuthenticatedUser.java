@@ -0,0 +1,46 @@
+package com.elearnhub.teacher_service.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+// ✅ Principal stored in the SecurityContext after authentication
+// Carries the user's id, role and display name so controllers never have to
+// call userService.findByUsername(authentication.getName()) again.
+// Extends Spring's User so existing code casting the principal keeps working.
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+    private final String role;
+    private final String displayName;
+
+    public AuthenticatedUser(Long id, String username, String password, String role, String name,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password != null ? password : "", authorities);
+        this.id = id;
+        this.role = role;
+        // Use name if available, otherwise username (same rule as the rest of the API)
+        this.displayName = name != null && !name.trim().isEmpty() ? name : username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean isTeacher() {
+        return "TEACHER".equals(role);
+    }
+
+    public boolean isStudent() {
+        return "STUDENT".equals(role);
+    }
+}
@@ -0,0 +1,10 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.util.List;
+
+// ✅ Outcome of a batch grading request: new grades, changed grades and rejected entries
+public record BatchGradeResult(int created, int updated, List<Rejected> rejected) {
+
+    public record Rejected(Long submissionId, String reason) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.elearnhub.teacher_service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+// ✅ Where file bytes live, behind one small interface.
+// BlobStore (lessons, submissions, profile pictures) and the thumbnails only talk to this;
+// which implementation is active is chosen with file.storage.type:
+//   local (default) -> LocalBlobStorage, files under file.blob-dir on this node
+//   s3              -> S3BlobStorage, any S3-compatible service (AWS S3, MinIO, ...), so several
+//                      app nodes can serve the same files without a shared disk
+// Keys are relative paths like "ab/cd/<sha256>"; objects are written once and never modified.
+public interface BlobStorage {
+
+    record ObjectInfo(long size, long lastModified) {
+    }
+
+    // Size and last modification (epoch millis), empty if there is no such object
+    Optional<ObjectInfo> stat(String key) throws IOException;
+
+    // Streams exactly size bytes from content into a new object
+    void put(String key, InputStream content, long size) throws IOException;
+
+    // Moves a fully written local file into storage (a rename locally, an upload remotely);
+    // the staged file is gone afterwards
+    void store(String key, Path stagedFile) throws IOException;
+
+    InputStream get(String key) throws IOException;
+
+    // Range read: [start, start + length) of the object
+    InputStream get(String key, long start, long length) throws IOException;
+
+    // Copies [start, start + length) of the object to out
+    default void transferTo(String key, long start, long length, OutputStream out) throws IOException {
+        try (InputStream in = get(key, start, length)) {
+            in.transferTo(out);
+        }
+    }
+
+    void delete(String key) throws IOException;
+
+    // Time-limited GET URL clients can fetch directly, bypassing the app node; empty if the
+    // storage cannot issue them. contentType/contentDisposition override the response headers.
+    Optional<URI> presignedGetUrl(String key, Duration validFor, String contentType, String contentDisposition);
+}
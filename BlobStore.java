@@ -0,0 +1,298 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.storage.BlobStorage;
+import com.elearnhub.teacher_service.util.FileRangeResponse;
+import com.elearnhub.teacher_service.util.StreamingFileWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// ✅ Content-addressed file store shared by lessons, submissions and profile pictures.
+// Files are stored once per SHA-256 under the key ab/cd/<sha256> in BlobStorage (local disk or
+// S3, see file.storage.type); the same PDF uploaded to 12 courses is one object with
+// ref_count = 12 in file_blob. Entities store "/blobs/<sha256>/<name>", so the original file name
+// survives for downloads. Uploads are staged and hashed under <blob-dir>/incoming on this node.
+// Reference changes are committed immediately (NOT_SUPPORTED suspends the caller's transaction):
+// callers take a reference before saving their row, and release it if that row never commits.
+// Unreferenced blobs are deleted by collectGarbage() after a grace period, never inline; puts and
+// collections are kept apart by the file_blob row lock, so several nodes can share one storage.
+@Service
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BlobStore {
+
+    public static final String PATH_PREFIX = "/blobs/";
+    private static final Pattern BLOB_ID = Pattern.compile("[0-9a-f]{64}");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BlobStorage storage;
+
+    @Value("${file.blob-dir:uploads/blobs}")
+    private String blobDir;
+
+    // Downloads answered with a 302 to a presigned storage URL (S3) instead of through this node
+    @Value("${file.storage.redirect-downloads:false}")
+    private boolean redirectDownloads;
+
+    @Value("${file.storage.presign-ttl-minutes:5}")
+    private long presignTtlMinutes;
+
+    @Value("${file.blob-gc-grace-minutes:60}")
+    private long gcGraceMinutes;
+
+    // Short transactions of their own (the class suspends the caller's): the file_blob row lock
+    // is what keeps put() and collectGarbage() apart, on this node and on every other one
+    private TransactionTemplate rowLockTransaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        rowLockTransaction = new TransactionTemplate(transactionManager);
+        rowLockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public record StoredBlob(String id, long size, boolean deduplicated) {
+    }
+
+    // Streams the content into the store and takes one reference on the resulting blob
+    public StoredBlob put(InputStream content, long maxBytes) throws IOException {
+        Path incoming = incomingPath(UUID.randomUUID().toString());
+        StreamingFileWriter.WrittenFile written = StreamingFileWriter.write(content, incoming, maxBytes);
+        try {
+            return moveIntoStore(incoming, written.sha256(), written.size());
+        } finally {
+            Files.deleteIfExists(incoming); // Failed store - the request body is gone anyway
+        }
+    }
+
+    // Moves a file that was assembled under incomingPath() into the store (hashed in place, then
+    // renamed - or uploaded once with S3 - without another local copy) and takes one reference.
+    // If storing fails the file stays where it is, so the caller can retry.
+    public StoredBlob adopt(Path incoming) throws IOException {
+        return adopt(incoming, StreamingFileWriter.sha256(incoming));
+    }
+
+    // Same, for a caller that already hashed the file (id must be its SHA-256 hex digest)
+    public StoredBlob adopt(Path incoming, String id) throws IOException {
+        return moveIntoStore(incoming, id, Files.size(incoming));
+    }
+
+    // Local staging location (on the same file system as local blobs, so storing is a rename)
+    public Path incomingPath(String name) {
+        return Paths.get(blobDir, "incoming", name);
+    }
+
+    // The reference is committed before the object is looked at. Collection deletes an object
+    // only while holding its file_blob row lock (see collectGarbage), and retain() has to wait for
+    // that lock - so once retain() returns, the object is either gone for good (we store it) or
+    // stays until our reference is released. No lock is held while the bytes are uploaded.
+    private StoredBlob moveIntoStore(Path incoming, String id, long size) throws IOException {
+        String key = keyOf(id);
+        retain(id, size);
+        try {
+            boolean deduplicated = storage.stat(key).isPresent();
+            if (deduplicated) {
+                Files.deleteIfExists(incoming); // Same content is already stored - drop our copy
+            } else {
+                storage.store(key, incoming);
+            }
+            return new StoredBlob(id, size, deduplicated);
+        } catch (IOException | RuntimeException e) {
+            release(id);
+            throw e;
+        }
+    }
+
+    // Drops one reference; the file goes away with the next collection once nothing points at it
+    public void release(String id) {
+        jdbcTemplate.update(
+                "UPDATE file_blob SET ref_count = ref_count - 1, updated_at = ? WHERE id = ? AND ref_count > 0",
+                LocalDateTime.now(), id);
+    }
+
+    // ✅ Records objects stored next to a blob and derived from it (profile picture thumbnails), so
+    // collectGarbage() deletes exactly those with it. Under the row lock: returns false if the blob
+    // was collected meanwhile - the caller then deletes what it stored itself.
+    public boolean addDerivedKeys(String id, Collection<String> keys) {
+        return Boolean.TRUE.equals(rowLockTransaction.execute(status -> {
+            List<String> current = jdbcTemplate.query(
+                    "SELECT derived_keys FROM file_blob WHERE id = ? FOR UPDATE",
+                    (rs, rowNum) -> rs.getString(1), id);
+            if (current.isEmpty()) {
+                return false;
+            }
+            Set<String> merged = new LinkedHashSet<>(derivedKeys(current.get(0)));
+            if (merged.addAll(keys)) {
+                jdbcTemplate.update("UPDATE file_blob SET derived_keys = ? WHERE id = ?", String.join(" ", merged), id);
+            }
+            return true;
+        }));
+    }
+
+    // Deletes blobs that have been unreferenced for longer than the grace period.
+    // One transaction per blob: the row is locked (FOR UPDATE) and re-checked, the object and the
+    // derived objects recorded on the row deleted, then the row - a concurrent retain() on any
+    // node blocks on the row until this commits.
+    @Scheduled(fixedDelayString = "${file.blob-gc-interval-ms:3600000}")
+    public void collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(gcGraceMinutes);
+        List<String> candidates = jdbcTemplate.queryForList(
+                "SELECT id FROM file_blob WHERE ref_count = 0 AND updated_at < ?", String.class, cutoff);
+        for (String id : candidates) {
+            rowLockTransaction.executeWithoutResult(status -> {
+                // One element per locked row; the element itself is null when nothing was derived
+                List<String> locked = jdbcTemplate.query(
+                        "SELECT derived_keys FROM file_blob WHERE id = ? AND ref_count = 0 AND updated_at < ? FOR UPDATE",
+                        (rs, rowNum) -> rs.getString(1), id, cutoff);
+                if (locked.isEmpty()) {
+                    return; // Revived by a put() meanwhile
+                }
+                try {
+                    storage.delete(keyOf(id));
+                    for (String derived : derivedKeys(locked.get(0))) {
+                        storage.delete(derived); // Missing keys are fine
+                    }
+                } catch (IOException e) {
+                    // Rolls back - the row stays and the next run tries again
+                    throw new UncheckedIOException("Failed to delete blob " + id, e);
+                }
+                jdbcTemplate.update("DELETE FROM file_blob WHERE id = ?", id);
+            });
+        }
+    }
+
+    // file_blob.derived_keys holds space-separated storage keys
+    private static List<String> derivedKeys(String column) {
+        return column == null || column.isBlank() ? List.of() : Arrays.asList(column.trim().split(" +"));
+    }
+
+    // "/blobs/<sha256>/<name>" as stored in Lesson.filePath / Submission.filePath
+    public static String toFilePath(String id, String fileName) {
+        String name = fileName != null ? fileName : "";
+        name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+        return PATH_PREFIX + id + "/" + (name.isEmpty() ? "file" : name);
+    }
+
+    // Blob id of a stored file path, or null for files stored before the blob store existed
+    public static String blobIdOf(String filePath) {
+        if (filePath == null || !filePath.startsWith(PATH_PREFIX)) {
+            return null;
+        }
+        int end = filePath.indexOf('/', PATH_PREFIX.length());
+        String id = end < 0 ? filePath.substring(PATH_PREFIX.length()) : filePath.substring(PATH_PREFIX.length(), end);
+        return BLOB_ID.matcher(id).matches() ? id : null;
+    }
+
+    // Strong ETag of a stored file: the content hash for blobs (no disk access at all),
+    // size + mtime for files stored before the blob store existed (a stat, the file is not opened)
+    public static String etagOf(String filePath, Path file) throws IOException {
+        String id = blobIdOf(filePath);
+        if (id != null) {
+            return "\"" + id + "\"";
+        }
+        return "\"" + Long.toHexString(Files.size(file)) + "-" + Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "\"";
+    }
+
+    public Optional<BlobStorage.ObjectInfo> stat(String id) throws IOException {
+        return storage.stat(keyOf(id));
+    }
+
+    public InputStream open(String id) throws IOException {
+        return storage.get(keyOf(id));
+    }
+
+    // Copies the whole blob (size from stat) to out
+    public void transferTo(String id, long size, OutputStream out) throws IOException {
+        storage.transferTo(keyOf(id), 0, size, out);
+    }
+
+    // ✅ Serves a stored file - a blob, or a legacy file on local disk - with conditional GET and
+    // Range support: 304, 200, 206, 416, or a 302 to a presigned URL when redirect-downloads is on.
+    // Returns null when the file does not exist (the caller words the 404).
+    public ResponseEntity<?> serve(String filePath, Path legacyFile, MediaType contentType, String contentDisposition,
+                                   CacheControl cacheControl, HttpHeaders requestHeaders, WebRequest webRequest)
+            throws IOException {
+        String id = blobIdOf(filePath);
+        if (id == null) {
+            // Legacy files get a size+mtime ETag, so they have to exist before it is computed
+            if (!Files.isRegularFile(legacyFile)) {
+                return null;
+            }
+            String etag = etagOf(filePath, legacyFile);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag, cacheControl);
+            }
+            return FileRangeResponse.serve(legacyFile, contentType, contentDisposition, etag, cacheControl, requestHeaders);
+        }
+
+        // Revalidation is answered from the content hash - storage is not touched
+        String etag = "\"" + id + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag, cacheControl);
+        }
+        if (redirectDownloads) {
+            Optional<URI> url = storage.presignedGetUrl(keyOf(id), Duration.ofMinutes(presignTtlMinutes),
+                    contentType.toString(), contentDisposition);
+            if (url.isPresent()) {
+                // The URL expires - never cache the redirect itself
+                return ResponseEntity.status(HttpStatus.FOUND).location(url.get()).cacheControl(CacheControl.noStore()).build();
+            }
+        }
+        Optional<BlobStorage.ObjectInfo> info = storage.stat(keyOf(id));
+        if (info.isEmpty()) {
+            return null;
+        }
+        return FileRangeResponse.serve(storage, keyOf(id), info.get(), contentType, contentDisposition,
+                etag, cacheControl, requestHeaders);
+    }
+
+    private static ResponseEntity<?> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+    }
+
+    // Storage key of a blob: two levels of fan-out, as the local layout has always been
+    private static String keyOf(String id) {
+        return id.substring(0, 2) + "/" + id.substring(2, 4) + "/" + id;
+    }
+
+    // Waits for the row lock if a collection is deleting this blob right now
+    private void retain(String id, long size) {
+        jdbcTemplate.update(
+                "INSERT INTO file_blob (id, size, ref_count, updated_at) VALUES (?, ?, 1, ?) "
+                        + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, updated_at = VALUES(updated_at)",
+                id, size, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,130 @@
+package com.elearnhub.teacher_service.util;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// ✅ The per-node read-through cache behind the enrollment, user summary and stats caches.
+// - bounded: least recently used entries are evicted once maxSize is reached
+// - TTL: an entry is reloaded after ttl, which bounds how long a change made on another node
+//   (or directly in the database) goes unseen; changes on this node call invalidate()
+// - loads run outside the lock; a load that raced with an invalidate()/update() is returned to
+//   its caller but not cached (it may have read the database before that change committed)
+public class BoundedTtlCache<K, V> {
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+
+    private final Map<K, Entry<V>> entries;
+    private final long ttlNanos;
+    // Bumped on every invalidation or update
+    private long generation;
+
+    public BoundedTtlCache(int maxSize, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    // The cached value, or null if missing or expired
+    public synchronized V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAt() >= ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    // Returns the cached value, or loads it (outside the lock) and caches the result
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+
+        long loadedAt = System.nanoTime();
+        V loaded = loader.apply(key);
+        synchronized (this) {
+            if (loaded != null && generation == loadGeneration) {
+                entries.put(key, new Entry<>(loaded, loadedAt));
+            }
+        }
+        return loaded;
+    }
+
+    // Batch version: all misses go to one loader call; keys the loader does not return are
+    // simply absent from the result
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> found = new HashMap<>();
+        Set<K> missing = new HashSet<>();
+        long loadGeneration;
+        synchronized (this) {
+            for (K key : keys) {
+                V cached = getIfPresent(key);
+                if (cached != null) {
+                    found.put(key, cached);
+                } else {
+                    missing.add(key);
+                }
+            }
+            loadGeneration = generation;
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long loadedAt = System.nanoTime();
+        Map<K, V> loaded = loader.apply(missing);
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                loaded.forEach((key, value) -> entries.put(key, new Entry<>(value, loadedAt)));
+            }
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    // Applies an in-place change to the cached value (if any) under the cache lock. Like
+    // invalidate(), it keeps a concurrent load from caching what it read before the change.
+    public synchronized void update(K key, Consumer<V> change) {
+        generation++;
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            change.accept(cached);
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll(Collection<K> keys) {
+        generation++;
+        for (K key : keys) {
+            entries.remove(key);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
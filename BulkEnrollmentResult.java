@@ -0,0 +1,13 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.util.List;
+
+// ✅ Summary of POST /courses/{id}/students:batch
+// notStudents: ids that do not exist or are not STUDENT accounts
+// invalidValues: CSV tokens that are not numeric ids
+public record BulkEnrollmentResult(int requested,
+                                   int enrolled,
+                                   int alreadyEnrolled,
+                                   List<Long> notStudents,
+                                   List<String> invalidValues) {
+}
@@ -5,11 +5,12 @@ import com.elearnhub.teacher_service.entity.ClassEntity;
 import com.elearnhub.teacher_service.entity.Course;
 import com.elearnhub.teacher_service.entity.User;
 import com.elearnhub.teacher_service.service.ClassService;
+import com.elearnhub.teacher_service.security.AuthenticatedUser;
+import com.elearnhub.teacher_service.security.CurrentUser;
 import com.elearnhub.teacher_service.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -31,13 +32,8 @@ public class ClassController {
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> createClass(
             @RequestBody Map<String, String> request,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser teacher) {
         try {
-            // Get teacher from authentication
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             String name = request.get("name");
             String subject = request.get("subject");
             String description = request.get("description");
@@ -56,8 +52,9 @@ public class ClassController {
             // You might need to save course first if it's a separate entity
             // course = courseService.createCourse(course);
 
-            // Create ClassEntity
-            ClassEntity classEntity = new ClassEntity(name, teacher, course);
+            // Create ClassEntity (teacher reference only needs the id - no extra lookup)
+            User teacherRef = userService.getUserReference(teacher.getId());
+            ClassEntity classEntity = new ClassEntity(name, teacherRef, course);
             ClassDTO classDTO = classService.createClass(classEntity);
 
             Map<String, Object> response = new HashMap<>();
@@ -75,13 +72,8 @@ public class ClassController {
     // ✅ UPDATED: Get classes for authenticated teacher
     @GetMapping
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<?> getClasses(Authentication authentication) {
+    public ResponseEntity<?> getClasses(@CurrentUser AuthenticatedUser teacher) {
         try {
-            // Get teacher from authentication
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             List<ClassDTO> classes = classService.getClassesByTeacher(teacher.getId());
             
             // Convert to frontend format
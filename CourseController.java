@@ -1,19 +1,32 @@
 package com.elearnhub.teacher_service.Controller;
 
+import com.elearnhub.teacher_service.dto.BulkEnrollmentResult;
+import com.elearnhub.teacher_service.dto.Gradebook;
 import com.elearnhub.teacher_service.entity.Course;
 import com.elearnhub.teacher_service.entity.User;
+import com.elearnhub.teacher_service.service.AssignmentService;
 import com.elearnhub.teacher_service.service.CourseService;
 import com.elearnhub.teacher_service.service.UserService;
+import com.elearnhub.teacher_service.security.AuthenticatedUser;
+import com.elearnhub.teacher_service.security.CurrentUser;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/courses")
@@ -25,19 +38,20 @@ public class CourseController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // ✅ Create course from frontend (name, subject, description)
     // Note: Frontend sends "subject" but Course entity has "name"
     @PostMapping
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> createCourse(
             @RequestBody Map<String, String> request,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser teacher) {
         try {
-            // Get teacher from authentication
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             // Frontend sends: { name, subject, description }
             // We'll use "name" as course name, or "subject" if name is not provided
             String courseName = request.get("name");
@@ -73,8 +87,7 @@ public class CourseController {
             courseResponse.put("subject", createdCourse.getName()); // For compatibility
             courseResponse.put("description", createdCourse.getDescription());
             courseResponse.put("teacherId", createdCourse.getTeacherId());
-            courseResponse.put("students", createdCourse.getStudents() != null ? 
-                    createdCourse.getStudents().size() : 0);
+            courseResponse.put("students", 0); // A new course has no enrollments yet
             
             response.put("course", courseResponse);
 
@@ -89,18 +102,17 @@ public class CourseController {
     // ✅ Get all courses for authenticated teacher
     @GetMapping
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<?> getCourses(Authentication authentication) {
+    public ResponseEntity<?> getCourses(@CurrentUser AuthenticatedUser teacher) {
         try {
-            // Get teacher from authentication
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             List<Course> courses = courseService.getCoursesByTeacherId(teacher.getId());
-            
+
+            // All enrollment counts in one query (rosters are never loaded)
+            Map<Long, Long> enrollmentCounts = courseService.getEnrollmentCounts(
+                    courses.stream().map(Course::getId).toList());
+
             // Convert to frontend format
             List<Map<String, Object>> response = courses.stream()
-                    .map(this::convertCourseToResponse)
+                    .map(course -> convertCourseToResponse(course, enrollmentCounts.getOrDefault(course.getId(), 0L)))
                     .toList();
 
             return ResponseEntity.ok(response);
@@ -114,12 +126,8 @@ public class CourseController {
     // ✅ Get single course by ID
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<?> getCourseById(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<?> getCourseById(@PathVariable Long id, @CurrentUser AuthenticatedUser teacher) {
         try {
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             Course course = courseService.getCourseById(id)
                     .orElseThrow(() -> new RuntimeException("Course not found"));
 
@@ -130,7 +138,8 @@ public class CourseController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
             }
 
-            return ResponseEntity.ok(convertCourseToResponse(course));
+            long students = courseService.getEnrollmentCounts(List.of(id)).getOrDefault(id, 0L);
+            return ResponseEntity.ok(convertCourseToResponse(course, students));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Failed to fetch course: " + e.getMessage());
@@ -138,15 +147,289 @@ public class CourseController {
         }
     }
 
+    // ✅ Add student to course (single insert into course_student)
+    @PostMapping("/{courseId}/students/{studentId}")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> addStudentToCourse(
+            @PathVariable Long courseId,
+            @PathVariable Long studentId,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            // Verify course exists and belongs to teacher
+            Course course = courseService.getCourseById(courseId)
+                    .orElseThrow(() -> new RuntimeException("Course not found"));
+
+            if (!course.getTeacherId().equals(teacher.getId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: You don't own this course");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            // Verify student exists
+            User student = userService.getUserById(studentId)
+                    .orElseThrow(() -> new RuntimeException("Student not found"));
+
+            // Verify student role
+            if (!"STUDENT".equals(student.getRole())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "User is not a student");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+
+            courseService.addStudentToCourse(courseId, studentId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Student added to course successfully");
+            response.put("courseId", courseId);
+            response.put("studentId", studentId);
+            response.put("studentName", student.getName() != null ? student.getName() : student.getUsername());
+
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to add student: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Bulk enrollment - JSON body: { "studentIds": [1, 2, 3] }
+    // Response: { requested, enrolled, alreadyEnrolled, notStudents: [...], invalidValues: [] }
+    @PostMapping(value = "/{courseId}/students:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> addStudentsToCourse(
+            @PathVariable Long courseId,
+            @RequestBody Map<String, List<Long>> request,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            ResponseEntity<?> denied = checkCourseOwner(courseId, teacher);
+            if (denied != null) {
+                return denied;
+            }
+
+            List<Long> studentIds = request.get("studentIds");
+            if (studentIds == null || studentIds.isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "studentIds is required");
+                return ResponseEntity.badRequest().body(error);
+            }
+
+            BulkEnrollmentResult result = courseService.enrollStudents(courseId, studentIds);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to add students: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Bulk enrollment - CSV body (Content-Type: text/csv): student ids, comma or newline separated.
+    // The body is streamed; only the parsed ids are kept in memory.
+    @PostMapping(value = "/{courseId}/students:batch", consumes = "text/csv")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> addStudentsToCourseFromCsv(
+            @PathVariable Long courseId,
+            HttpServletRequest request,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            ResponseEntity<?> denied = checkCourseOwner(courseId, teacher);
+            if (denied != null) {
+                return denied;
+            }
+
+            BulkEnrollmentResult result = courseService.enrollStudentsFromCsv(courseId, request.getInputStream());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to add students: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Remove student from course (single delete from course_student)
+    @DeleteMapping("/{courseId}/students/{studentId}")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> removeStudentFromCourse(
+            @PathVariable Long courseId,
+            @PathVariable Long studentId,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            Course course = courseService.getCourseById(courseId)
+                    .orElseThrow(() -> new RuntimeException("Course not found"));
+
+            if (!course.getTeacherId().equals(teacher.getId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: You don't own this course");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            courseService.removeStudentFromCourse(courseId, studentId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Student removed from course successfully");
+            response.put("courseId", courseId);
+            response.put("studentId", studentId);
+
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to remove student: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Get all students in a course
+    @GetMapping("/{courseId}/students")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> getCourseStudents(
+            @PathVariable Long courseId,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            Course course = courseService.getCourseById(courseId)
+                    .orElseThrow(() -> new RuntimeException("Course not found"));
+
+            if (!course.getTeacherId().equals(teacher.getId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: You don't own this course");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            List<Map<String, Object>> response = courseService.getCourseStudents(courseId).stream()
+                    .map(student -> {
+                        Map<String, Object> studentData = new HashMap<>();
+                        studentData.put("id", student.getId());
+                        studentData.put("username", student.getUsername());
+                        studentData.put("name", student.getName() != null ? student.getName() : student.getUsername());
+                        studentData.put("email", student.getEmail() != null ? student.getEmail() : "");
+                        return studentData;
+                    })
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to fetch students: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Gradebook: students x assignments for one course, computed server-side.
+    // Response: { courseId, assignments: [{ id, title, dueDate, maxGrade }],
+    //             students: [{ id, name, scores: [score | null, ...], submitted: [bool, ...], average }] }
+    // scores/submitted follow the order of "assignments" (due date). average is a percentage.
+    // The matrix is built before streaming starts; the JSON is written straight to the response.
+    @GetMapping("/{courseId}/gradebook")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> getGradebook(
+            @PathVariable Long courseId,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            ResponseEntity<?> denied = checkCourseOwner(courseId, teacher);
+            if (denied != null) {
+                return denied;
+            }
+
+            Gradebook gradebook = assignmentService.buildGradebook(courseId);
+            StreamingResponseBody body = out -> writeGradebook(gradebook, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to build gradebook: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    private void writeGradebook(Gradebook gradebook, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("courseId", gradebook.getCourseId());
+
+            json.writeArrayFieldStart("assignments");
+            for (int a = 0; a < gradebook.getAssignmentCount(); a++) {
+                json.writeStartObject();
+                json.writeNumberField("id", gradebook.getAssignmentId(a));
+                json.writeStringField("title", gradebook.getAssignmentTitle(a));
+                json.writeStringField("dueDate", gradebook.getDueDate(a) != null ? gradebook.getDueDate(a).toString() : null);
+                json.writeNumberField("maxGrade", gradebook.getMaxGrade(a));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("students");
+            for (int s = 0; s < gradebook.getStudentCount(); s++) {
+                json.writeStartObject();
+                json.writeNumberField("id", gradebook.getStudentId(s));
+                json.writeStringField("name", gradebook.getStudentName(s));
+
+                json.writeArrayFieldStart("scores");
+                for (int a = 0; a < gradebook.getAssignmentCount(); a++) {
+                    writeNumberOrNull(json, gradebook.score(s, a));
+                }
+                json.writeEndArray();
+
+                json.writeArrayFieldStart("submitted");
+                for (int a = 0; a < gradebook.getAssignmentCount(); a++) {
+                    json.writeBoolean(gradebook.isSubmitted(s, a));
+                }
+                json.writeEndArray();
+
+                json.writeFieldName("average");
+                writeNumberOrNull(json, gradebook.averagePercent(s));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+    }
+
+    // NaN means "no value" in the matrix - JSON has no NaN, so write null
+    private void writeNumberOrNull(JsonGenerator json, double value) throws IOException {
+        if (Double.isNaN(value)) {
+            json.writeNull();
+        } else {
+            json.writeNumber(value);
+        }
+    }
+
+    // Returns an error response if the course is missing or not owned by the teacher, null if allowed
+    private ResponseEntity<?> checkCourseOwner(Long courseId, AuthenticatedUser teacher) {
+        Optional<Course> course = courseService.getCourseById(courseId);
+        if (course.isEmpty()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Course not found with id: " + courseId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+        if (!course.get().getTeacherId().equals(teacher.getId())) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Unauthorized: You don't own this course");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+        }
+        return null;
+    }
+
     // Helper method to convert Course to frontend response format
-    private Map<String, Object> convertCourseToResponse(Course course) {
+    private Map<String, Object> convertCourseToResponse(Course course, long students) {
         Map<String, Object> response = new HashMap<>();
         response.put("id", course.getId());
         response.put("name", course.getName());
         response.put("subject", course.getName()); // For frontend compatibility
         response.put("description", course.getDescription() != null ? course.getDescription() : "");
         response.put("teacherId", course.getTeacherId());
-        response.put("students", course.getStudents() != null ? course.getStudents().size() : 0);
+        response.put("students", students);
         return response;
     }
 }
@@ -0,0 +1,5 @@
+package com.elearnhub.teacher_service.dto;
+
+// ✅ Number of students enrolled in a course, computed by the database (no roster loading)
+public record CourseEnrollmentCount(Long courseId, Long students) {
+}
@@ -1,13 +1,43 @@
 package com.elearnhub.teacher_service.repository;
 
+import com.elearnhub.teacher_service.dto.CourseEnrollmentCount;
 import com.elearnhub.teacher_service.entity.Course;
+import com.elearnhub.teacher_service.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
     List<Course> findByTeacherId(Long teacherId);
-}
 
+    // ✅ Courses a student is enrolled in - the students collection stays lazy
+    @Query("SELECT c FROM Course c JOIN c.students s WHERE s.id = :studentId")
+    List<Course> findCoursesByStudentId(@Param("studentId") Long studentId);
+
+    // ✅ Only the ids - backs StudentCourseCache
+    @Query("SELECT c.id FROM Course c JOIN c.students s WHERE s.id = :studentId")
+    Set<Long> findCourseIdsByStudentId(@Param("studentId") Long studentId);
+
+    // ✅ Enrollment counts for many courses in one GROUP BY query.
+    // Courses without students are not returned (treat as 0).
+    @Query("SELECT new com.elearnhub.teacher_service.dto.CourseEnrollmentCount(c.id, COUNT(s.id)) " +
+           "FROM Course c JOIN c.students s WHERE c.id IN :courseIds GROUP BY c.id")
+    List<CourseEnrollmentCount> countStudentsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    // Roster of one course - loaded by EnrollmentIndex, which answers membership checks from it
+    @Query("SELECT s.id FROM Course c JOIN c.students s WHERE c.id = :courseId ORDER BY s.id")
+    List<Long> findStudentIdsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT s FROM Course c JOIN c.students s WHERE c.id = :courseId ORDER BY s.id")
+    List<User> findStudentsByCourseId(@Param("courseId") Long courseId);
+
+    // ✅ Which of the given students are already enrolled (one query per bulk-enrollment chunk)
+    @Query("SELECT s.id FROM Course c JOIN c.students s WHERE c.id = :courseId AND s.id IN :studentIds")
+    Set<Long> findEnrolledStudentIds(@Param("courseId") Long courseId, @Param("studentIds") Collection<Long> studentIds);
+}
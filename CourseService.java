@@ -1,13 +1,33 @@
 package com.elearnhub.teacher_service.service;
 
+import com.elearnhub.teacher_service.dto.BulkEnrollmentResult;
+import com.elearnhub.teacher_service.dto.CourseEnrollmentCount;
 import com.elearnhub.teacher_service.entity.Course;
+import com.elearnhub.teacher_service.entity.User;
 import com.elearnhub.teacher_service.repository.CourseRepository;
+import com.elearnhub.teacher_service.repository.UserRepository;
+import com.elearnhub.teacher_service.util.TransactionUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -16,6 +36,24 @@ public class CourseService {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private EnrollmentIndex enrollmentIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudentCourseCache studentCourseCache;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${enrollment.batch-size:1000}")
+    private int enrollmentBatchSize;
+
     public Course createCourse(Course course) {
         return courseRepository.save(course);
     }
@@ -24,6 +62,36 @@ public class CourseService {
         return courseRepository.findByTeacherId(teacherId);
     }
 
+    // Course ids come from StudentCourseCache, then one primary-key lookup (no join)
+    public List<Course> getCoursesByStudentId(Long studentId) {
+        Set<Long> courseIds = getCourseIdsByStudentId(studentId);
+        if (courseIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return courseRepository.findAllById(courseIds);
+    }
+
+    // ✅ Ids of the student's courses, cached until the student's enrollments change
+    public Set<Long> getCourseIdsByStudentId(Long studentId) {
+        return studentCourseCache.get(studentId, courseRepository::findCourseIdsByStudentId);
+    }
+
+    // ✅ courseId -> number of enrolled students, for every requested id (0 if none).
+    // Use this instead of course.getStudents().size(), which loads the whole roster.
+    public Map<Long, Long> getEnrollmentCounts(Collection<Long> courseIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (courseIds.isEmpty()) {
+            return counts;
+        }
+        for (Long courseId : courseIds) {
+            counts.put(courseId, 0L);
+        }
+        for (CourseEnrollmentCount count : courseRepository.countStudentsByCourseIds(courseIds)) {
+            counts.put(count.courseId(), count.students());
+        }
+        return counts;
+    }
+
     public Optional<Course> getCourseById(Long id) {
         return courseRepository.findById(id);
     }
@@ -32,8 +100,135 @@ public class CourseService {
         return courseRepository.save(course);
     }
 
+    // Lessons go with the course (ON DELETE CASCADE) - each held one reference on its blob,
+    // released once the delete has committed
     public void deleteCourse(Long id) {
+        long[] enrolledStudents = enrollmentIndex.getStudentIds(id);
+        List<String> lessonBlobIds = jdbcTemplate.queryForList(
+                        "SELECT file_path FROM lesson WHERE course_id = ?", String.class, id)
+                .stream().map(BlobStore::blobIdOf).filter(Objects::nonNull).toList();
         courseRepository.deleteById(id);
+        TransactionUtil.afterCommit(() -> {
+            enrollmentIndex.removeCourse(id);
+            studentCourseCache.invalidateAll(Arrays.stream(enrolledStudents).boxed().toList());
+            lessonBlobIds.forEach(blobStore::release);
+        });
+    }
+
+    // ✅ Membership check from the in-memory index (no query)
+    public boolean isEnrolled(Long studentId, Long courseId) {
+        return enrollmentIndex.isEnrolled(studentId, courseId);
+    }
+
+    // ✅ Enroll with a single insert into the join table - the roster is never loaded
+    public void addStudentToCourse(Long courseId, Long studentId) {
+        if (enrollmentIndex.isEnrolled(studentId, courseId)) {
+            throw new RuntimeException("Student is already enrolled in this course");
+        }
+        // The index may be stale (TTL, other nodes) - uk_course_student decides, IGNORE reports 0 rows
+        int inserted = jdbcTemplate.update(
+                "INSERT IGNORE INTO course_student (course_id, student_id) VALUES (?, ?)", courseId, studentId);
+        if (inserted == 0) {
+            throw new RuntimeException("Student is already enrolled in this course");
+        }
+        TransactionUtil.afterCommit(() -> {
+            enrollmentIndex.add(courseId, studentId);
+            studentCourseCache.invalidate(studentId);
+        });
+    }
+
+    public void removeStudentFromCourse(Long courseId, Long studentId) {
+        int removed = jdbcTemplate.update(
+                "DELETE FROM course_student WHERE course_id = ? AND student_id = ?", courseId, studentId);
+        if (removed == 0) {
+            throw new RuntimeException("Student is not enrolled in this course");
+        }
+        TransactionUtil.afterCommit(() -> {
+            enrollmentIndex.remove(courseId, studentId);
+            studentCourseCache.invalidate(studentId);
+        });
+    }
+
+    // ✅ Bulk enrollment: per chunk of ids, one query for valid students, one for existing
+    // enrollments and one JDBC batch insert. The Course aggregate is never loaded or saved.
+    public BulkEnrollmentResult enrollStudents(Long courseId, Collection<Long> studentIds) {
+        return enrollStudents(courseId, new LinkedHashSet<>(studentIds), new ArrayList<>());
+    }
+
+    // CSV body: ids separated by commas and/or newlines; a non-numeric header is reported as invalid
+    public BulkEnrollmentResult enrollStudentsFromCsv(Long courseId, InputStream csv) throws IOException {
+        Set<Long> studentIds = new LinkedHashSet<>();
+        List<String> invalidValues = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                for (String token : line.split(",")) {
+                    String value = token.trim();
+                    if (value.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        studentIds.add(Long.parseLong(value));
+                    } catch (NumberFormatException e) {
+                        invalidValues.add(value);
+                    }
+                }
+            }
+        }
+        return enrollStudents(courseId, studentIds, invalidValues);
+    }
+
+    private BulkEnrollmentResult enrollStudents(Long courseId, Set<Long> studentIds, List<String> invalidValues) {
+        List<Long> notStudents = new ArrayList<>();
+        List<Long> enrolled = new ArrayList<>();
+        int alreadyEnrolled = 0;
+
+        List<Long> ids = new ArrayList<>(studentIds);
+        for (int from = 0; from < ids.size(); from += enrollmentBatchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + enrollmentBatchSize, ids.size()));
+
+            Set<Long> students = userRepository.findStudentIdsIn(chunk);
+            Set<Long> existing = courseRepository.findEnrolledStudentIds(courseId, chunk);
+
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (Long studentId : chunk) {
+                if (!students.contains(studentId)) {
+                    notStudents.add(studentId);
+                } else if (existing.contains(studentId)) {
+                    alreadyEnrolled++;
+                } else {
+                    rows.add(new Object[]{courseId, studentId});
+                }
+            }
+            if (!rows.isEmpty()) {
+                // Enrolled concurrently since the check above: ignored by uk_course_student (0 rows)
+                int[] counts = jdbcTemplate.batchUpdate(
+                        "INSERT IGNORE INTO course_student (course_id, student_id) VALUES (?, ?)", rows);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        alreadyEnrolled++;
+                    } else {
+                        enrolled.add((Long) rows.get(i)[1]);
+                    }
+                }
+            }
+        }
+
+        TransactionUtil.afterCommit(() -> {
+            enrolled.forEach(studentId -> enrollmentIndex.add(courseId, studentId));
+            studentCourseCache.invalidateAll(enrolled);
+        });
+        return new BulkEnrollmentResult(studentIds.size() + invalidValues.size(), enrolled.size(),
+                alreadyEnrolled, notStudents, invalidValues);
+    }
+
+    // Sorted ids of the enrolled students, from the enrollment index
+    public long[] getCourseStudentIds(Long courseId) {
+        return enrollmentIndex.getStudentIds(courseId);
+    }
+
+    public List<User> getCourseStudents(Long courseId) {
+        return courseRepository.findStudentsByCourseId(courseId);
     }
 }
 
@@ -0,0 +1,19 @@
+package com.elearnhub.teacher_service.security;
+
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// ✅ Inject the authenticated user into a controller method:
+//     public ResponseEntity<?> getCourses(@CurrentUser AuthenticatedUser currentUser)
+// Resolved from the SecurityContext by Spring Security's argument resolver - no database lookup.
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@AuthenticationPrincipal(errorOnInvalidType = true)
+public @interface CurrentUser {
+}
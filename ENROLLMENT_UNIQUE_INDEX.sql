@@ -0,0 +1,31 @@
+-- ============================================
+-- ONE ENROLLMENT PER STUDENT AND COURSE
+-- ============================================
+-- Database: elearn_teacher
+-- CourseService checks EnrollmentIndex (a per-node cache with a TTL) before enrolling, so two
+-- nodes - or two quick clicks - can both see "not enrolled". This key makes the second
+-- INSERT IGNORE a no-op, reported as "already enrolled", instead of a duplicate row that
+-- counts the student twice in rosters and the gradebook.
+-- Run once; ddl-auto=update does not add unique keys to an existing join table.
+-- ============================================
+
+USE elearn_teacher;
+
+-- Step 1: Find duplicate enrollments
+SELECT course_id, student_id, COUNT(*) AS copies
+FROM course_student
+GROUP BY course_id, student_id
+HAVING COUNT(*) > 1;
+
+-- Step 2: Remove the duplicates (keeps one row per pair)
+CREATE TABLE course_student_dedup AS SELECT DISTINCT course_id, student_id FROM course_student;
+DELETE FROM course_student;
+INSERT INTO course_student (course_id, student_id) SELECT course_id, student_id FROM course_student_dedup;
+DROP TABLE course_student_dedup;
+
+-- Step 3: Add the unique key
+-- (skip if SHOW INDEX FROM course_student already lists a unique key or primary key on both columns)
+CREATE UNIQUE INDEX uk_course_student ON course_student (course_id, student_id);
+
+-- Verify
+-- SHOW INDEX FROM course_student WHERE Key_name = 'uk_course_student';
@@ -0,0 +1,62 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.repository.CourseRepository;
+import com.elearnhub.teacher_service.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// ✅ In-memory rosters from course_student: courseId -> sorted array of student ids.
+// isEnrolled() is a binary search on the course's roster - no query, no entity loading.
+// Rosters are loaded per course on first use (one query, two longs per row) and trusted for
+// ttl-seconds only: enrollment changes made on another node, or directly in the database,
+// are seen here within that time. Changes on this node invalidate the course right after
+// commit, so they are seen at once. Least recently used courses are evicted at max-size.
+@Component
+public class EnrollmentIndex {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final BoundedTtlCache<Long, long[]> rosters;
+
+    public EnrollmentIndex(@Value("${enrollment.roster-cache.max-size:5000}") int maxSize,
+                           @Value("${enrollment.roster-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.rosters = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public boolean isEnrolled(Long studentId, Long courseId) {
+        if (studentId == null || courseId == null) {
+            return false;
+        }
+        return Arrays.binarySearch(roster(courseId), studentId) >= 0;
+    }
+
+    // Sorted student ids of a course (empty if none)
+    public long[] getStudentIds(Long courseId) {
+        return roster(courseId).clone();
+    }
+
+    // Call after an enrollment of the course is committed (on this node)
+    public void add(Long courseId, Long studentId) {
+        rosters.invalidate(courseId);
+    }
+
+    public void remove(Long courseId, Long studentId) {
+        rosters.invalidate(courseId);
+    }
+
+    public void removeCourse(Long courseId) {
+        rosters.invalidate(courseId);
+    }
+
+    private long[] roster(Long courseId) {
+        return rosters.get(courseId, id -> courseRepository.findStudentIdsByCourseId(id).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray());
+    }
+}
@@ -0,0 +1,30 @@
+-- ============================================
+-- DERIVED OBJECTS OF A BLOB (PROFILE PICTURE THUMBNAILS)
+-- ============================================
+-- Database: elearn_teacher
+-- Blob GC deletes a blob together with the storage keys listed in file_blob.derived_keys.
+-- ProfilePictureService records its thumbnails there when it generates them; every other blob
+-- has NULL and costs one DELETE. ddl-auto=update adds the column, but not the backfill below:
+-- without it, thumbnails generated before this change outlive their picture.
+-- ============================================
+
+USE elearn_teacher;
+
+-- Step 1: Add the column
+-- (skip if SHOW COLUMNS FROM file_blob LIKE 'derived_keys' returns a row)
+ALTER TABLE file_blob ADD COLUMN derived_keys TEXT NULL;
+
+-- Step 2: Record the thumbnails of current profile pictures ("/blobs/<sha256>/<name>").
+-- PNG/GIF pictures have PNG thumbnails, everything else JPEG; keys that were never generated are fine.
+UPDATE file_blob b
+JOIN (SELECT DISTINCT SUBSTRING(profile_picture, 8, 64) AS blob_id,
+             IF(LOWER(profile_picture) LIKE '%.png' OR LOWER(profile_picture) LIKE '%.gif', 'png', 'jpg') AS format
+      FROM user
+      WHERE profile_picture LIKE '/blobs/%') p ON p.blob_id = b.id
+SET b.derived_keys = CONCAT_WS(' ', b.derived_keys,
+        CONCAT('thumbnails/', LEFT(b.id, 2), '/', b.id, '/256.', p.format),
+        CONCAT('thumbnails/', LEFT(b.id, 2), '/', b.id, '/64.', p.format),
+        CONCAT('thumbnails/', LEFT(b.id, 2), '/', b.id, '/32.', p.format));
+
+-- Verify
+-- SELECT id, derived_keys FROM file_blob WHERE derived_keys IS NOT NULL LIMIT 10;
@@ -0,0 +1,37 @@
+package com.elearnhub.teacher_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// ✅ One row per stored blob (content-addressed by SHA-256).
+// refCount = number of lessons/submissions pointing at the blob; rows are written with
+// plain SQL by BlobStore, the entity only exists so the table is created with the schema:
+//   CREATE TABLE file_blob (id CHAR(64) PRIMARY KEY, size BIGINT NOT NULL,
+//                           ref_count INT NOT NULL, updated_at DATETIME(6) NOT NULL,
+//                           derived_keys TEXT NULL,
+//                           INDEX idx_file_blob_unreferenced (ref_count, updated_at));
+@Entity
+@Table(name = "file_blob", indexes = @Index(name = "idx_file_blob_unreferenced", columnList = "ref_count, updated_at"))
+@Data
+@NoArgsConstructor
+public class FileBlob {
+    @Id
+    @Column(length = 64)
+    private String id; // Lowercase hex SHA-256 of the content
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Space-separated storage keys of objects derived from the blob (thumbnails), deleted with it
+    @Column(name = "derived_keys", columnDefinition = "TEXT")
+    private String derivedKeys;
+}
@@ -0,0 +1,250 @@
+package com.elearnhub.teacher_service.util;
+
+import com.elearnhub.teacher_service.storage.BlobStorage;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+// ✅ Serves a stored file with HTTP Range support (RFC 9110 section 14).
+//   no Range / stale If-Range  -> 200 with the whole file
+//   one range                  -> 206 with Content-Range
+//   several ranges             -> 206 multipart/byteranges (overlapping ones merged first)
+//   nothing satisfiable        -> 416 with "Content-Range: bytes */<size>"
+// Bytes go from storage to the response one range after another (FileChannel.transferTo for
+// local files, ranged GETs for object storage), so a resumed 200 MB download or a PDF viewer
+// fetching page 40 only reads what it asks for.
+public final class FileRangeResponse {
+
+    // More ranges than this (or a malformed header) -> ignore Range and send the whole file
+    private static final int MAX_RANGES = 16;
+
+    private FileRangeResponse() {
+    }
+
+    private record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    // Writes [start, start + length) of the content to the response
+    @FunctionalInterface
+    private interface RangeWriter {
+        void write(long start, long length, OutputStream out) throws IOException;
+    }
+
+    // etag must be strong (see BlobStore.etagOf); contentDisposition e.g. "inline; filename=\"notes.pdf\""
+    // (null to omit). If-None-Match / If-Modified-Since are the caller's job, before this is called.
+    public static ResponseEntity<?> serve(Path file, MediaType contentType, String contentDisposition, String etag,
+                                          CacheControl cacheControl, HttpHeaders requestHeaders) throws IOException {
+        return serve(Files.size(file), Files.getLastModifiedTime(file).toMillis(),
+                (start, length, out) -> transfer(file, start, length, out),
+                contentType, contentDisposition, etag, cacheControl, requestHeaders);
+    }
+
+    // Same for an object in blob storage; info comes from the caller's stat (one lookup per request)
+    public static ResponseEntity<?> serve(BlobStorage storage, String key, BlobStorage.ObjectInfo info,
+                                          MediaType contentType, String contentDisposition, String etag,
+                                          CacheControl cacheControl, HttpHeaders requestHeaders) {
+        return serve(info.size(), info.lastModified(),
+                (start, length, out) -> storage.transferTo(key, start, length, out),
+                contentType, contentDisposition, etag, cacheControl, requestHeaders);
+    }
+
+    private static ResponseEntity<?> serve(long size, long lastModified, RangeWriter writer,
+                                           MediaType contentType, String contentDisposition, String etag,
+                                           CacheControl cacheControl, HttpHeaders requestHeaders) {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+        headers.setCacheControl(cacheControl);
+        if (contentDisposition != null) {
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+        }
+
+        String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+        List<ByteRange> ranges = rangeHeader != null && ifRangeMatches(requestHeaders, etag, lastModified)
+                ? parseRanges(rangeHeader, size)
+                : null;
+
+        if (ranges == null) {
+            headers.setContentType(contentType);
+            headers.setContentLength(size);
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body((StreamingResponseBody) out -> writer.write(0, size, out));
+        }
+
+        if (ranges.isEmpty()) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+        }
+
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            headers.setContentType(contentType);
+            headers.setContentLength(range.length());
+            headers.set(HttpHeaders.CONTENT_RANGE, contentRange(range, size));
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .headers(headers)
+                    .body((StreamingResponseBody) out -> writer.write(range.start(), range.length(), out));
+        }
+
+        // multipart/byteranges - part headers are built up front so Content-Length is exact
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (ByteRange range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, size) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range.length();
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        headers.setContentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary));
+        headers.setContentLength(contentLength);
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .headers(headers)
+                .body((StreamingResponseBody) out -> {
+                    for (int i = 0; i < ranges.size(); i++) {
+                        out.write(partHeaders.get(i));
+                        writer.write(ranges.get(i).start(), ranges.get(i).length(), out);
+                    }
+                    out.write(closing);
+                });
+    }
+
+    // If-Range holds an ETag or an HTTP date; the range only applies while the file is unchanged
+    private static boolean ifRangeMatches(HttpHeaders requestHeaders, String etag, long lastModified) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag); // Strong comparison - weak tags never match
+        }
+        try {
+            // HTTP dates have second precision
+            return requestHeaders.getFirstDate(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // null = ignore the header (malformed, not bytes, too many ranges); empty = unsatisfiable
+    private static List<ByteRange> parseRanges(String header, long size) {
+        if (!header.startsWith("bytes=")) {
+            return null;
+        }
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            long start;
+            long end;
+            try {
+                if (dash == 0) {
+                    // "-500" = the last 500 bytes
+                    long suffix = Long.parseLong(spec.substring(1));
+                    if (suffix <= 0) {
+                        continue;
+                    }
+                    start = Math.max(0, size - suffix);
+                    end = size - 1;
+                } else {
+                    start = Long.parseLong(spec.substring(0, dash));
+                    String last = spec.substring(dash + 1);
+                    if (last.isEmpty()) {
+                        end = size - 1; // "500-" = from byte 500 to the end
+                    } else {
+                        long requestedEnd = Long.parseLong(last);
+                        if (requestedEnd < start) {
+                            return null; // "500-100" is invalid syntax, not just unsatisfiable
+                        }
+                        end = Math.min(requestedEnd, size - 1);
+                    }
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (start < size && start <= end) {
+                ranges.add(new ByteRange(start, end));
+            }
+        }
+        return coalesce(ranges);
+    }
+
+    // Overlapping or adjacent ranges become one, in file order (RFC 9110 14.1.2 allows this), so
+    // "bytes=0-,0-,..." is one copy of the file, and no response is larger than the file
+    private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        ranges.sort(Comparator.comparingLong(ByteRange::start));
+        List<ByteRange> merged = new ArrayList<>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (ByteRange next : ranges.subList(1, ranges.size())) {
+            if (next.start() <= current.end() + 1) {
+                current = new ByteRange(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private static String contentRange(ByteRange range, long size) {
+        return "bytes " + range.start() + "-" + range.end() + "/" + size;
+    }
+
+    // Copies [start, start + length) of the file to the response with FileChannel.transferTo
+    public static void transfer(Path file, long start, long length, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    throw new EOFException("File shrank while it was being sent: " + file);
+                }
+                position += transferred;
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- ============================================
+-- ONE GRADE PER SUBMISSION
+-- ============================================
+-- Database: elearn_teacher
+-- Grading writes INSERT ... ON DUPLICATE KEY UPDATE on this key (AssignmentService.writeGrades):
+-- without it, two teachers grading at once - or a batch sent twice - insert a second grade
+-- row for the submission, and every later single-grade lookup fails.
+-- Required; run once before deploying. ddl-auto=update does not add this key.
+-- ============================================
+
+USE elearn_teacher;
+
+-- Step 1: Find submissions with more than one grade
+SELECT submission_id, COUNT(*) AS grades, GROUP_CONCAT(id ORDER BY id) AS ids
+FROM grade
+GROUP BY submission_id
+HAVING COUNT(*) > 1;
+
+-- Step 2: Keep the newest grade (highest id) of each submission
+DELETE g FROM grade g
+JOIN grade newer ON newer.submission_id = g.submission_id AND newer.id > g.id;
+
+-- Step 3: Add the unique key
+-- (skip if SHOW INDEX FROM grade already lists a unique key on submission_id)
+CREATE UNIQUE INDEX uk_grade_submission ON grade (submission_id);
+
+-- Verify
+-- SHOW INDEX FROM grade WHERE Key_name = 'uk_grade_submission';
@@ -0,0 +1,5 @@
+package com.elearnhub.teacher_service.dto;
+
+// ✅ One line of a batch grading request: PUT /assignments/{assignmentId}/grades
+public record GradeEntry(Long submissionId, Double grade, String feedback) {
+}
@@ -2,13 +2,30 @@ package com.elearnhub.teacher_service.repository;
 
 import com.elearnhub.teacher_service.entity.Grade;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GradeRepository extends JpaRepository<Grade, Long> {
     Optional<Grade> findBySubmissionId(Long submissionId);
+
+    // ✅ Current scores of many submissions in one query (batch grading)
+    @Query("SELECT g.submissionId AS submissionId, g.score AS score FROM Grade g WHERE g.submissionId IN :submissionIds")
+    List<GradeScore> findScoresBySubmissionIdIn(@Param("submissionIds") Collection<Long> submissionIds);
+
+    @Query("SELECT g.submissionId AS submissionId, g.score AS score FROM Grade g " +
+           "JOIN Submission s ON s.id = g.submissionId WHERE s.assignmentId = :assignmentId")
+    List<GradeScore> findScoresByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    interface GradeScore {
+        Long getSubmissionId();
+        Double getScore();
+    }
 }
 
 
@@ -0,0 +1,101 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+// ✅ Students x assignments grade matrix of one course.
+// Students and assignments are addressed by dense ordinals (their position in the arrays
+// below); scores are stored row-major in one double[] with NaN for "no grade".
+public class Gradebook {
+
+    private final Long courseId;
+    private final long[] studentIds;
+    private final String[] studentNames;
+    private final long[] assignmentIds;
+    private final String[] assignmentTitles;
+    private final LocalDateTime[] dueDates;
+    private final double[] maxGrades;
+    private final double[] scores;
+    private final boolean[] submitted;
+
+    public Gradebook(Long courseId, long[] studentIds, String[] studentNames,
+                     long[] assignmentIds, String[] assignmentTitles,
+                     LocalDateTime[] dueDates, double[] maxGrades) {
+        this.courseId = courseId;
+        this.studentIds = studentIds;
+        this.studentNames = studentNames;
+        this.assignmentIds = assignmentIds;
+        this.assignmentTitles = assignmentTitles;
+        this.dueDates = dueDates;
+        this.maxGrades = maxGrades;
+        this.scores = new double[studentIds.length * assignmentIds.length];
+        this.submitted = new boolean[scores.length];
+        Arrays.fill(scores, Double.NaN);
+    }
+
+    public void record(int studentOrdinal, int assignmentOrdinal, Double score) {
+        int cell = studentOrdinal * assignmentIds.length + assignmentOrdinal;
+        submitted[cell] = true;
+        if (score != null) {
+            scores[cell] = score;
+        }
+    }
+
+    public double score(int studentOrdinal, int assignmentOrdinal) {
+        return scores[studentOrdinal * assignmentIds.length + assignmentOrdinal];
+    }
+
+    public boolean isSubmitted(int studentOrdinal, int assignmentOrdinal) {
+        return submitted[studentOrdinal * assignmentIds.length + assignmentOrdinal];
+    }
+
+    // Mean of the student's graded assignments as a percentage of maxGrade (NaN if none graded)
+    public double averagePercent(int studentOrdinal) {
+        double sum = 0;
+        int graded = 0;
+        for (int a = 0; a < assignmentIds.length; a++) {
+            double score = score(studentOrdinal, a);
+            if (!Double.isNaN(score) && maxGrades[a] > 0) {
+                sum += score / maxGrades[a] * 100;
+                graded++;
+            }
+        }
+        return graded > 0 ? sum / graded : Double.NaN;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public int getStudentCount() {
+        return studentIds.length;
+    }
+
+    public int getAssignmentCount() {
+        return assignmentIds.length;
+    }
+
+    public long getStudentId(int ordinal) {
+        return studentIds[ordinal];
+    }
+
+    public String getStudentName(int ordinal) {
+        return studentNames[ordinal];
+    }
+
+    public long getAssignmentId(int ordinal) {
+        return assignmentIds[ordinal];
+    }
+
+    public String getAssignmentTitle(int ordinal) {
+        return assignmentTitles[ordinal];
+    }
+
+    public LocalDateTime getDueDate(int ordinal) {
+        return dueDates[ordinal];
+    }
+
+    public double getMaxGrade(int ordinal) {
+        return maxGrades[ordinal];
+    }
+}
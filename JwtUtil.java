@@ -0,0 +1,82 @@
+package com.elearnhub.teacher_service.util;
+
+import com.elearnhub.teacher_service.security.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+
+// ✅ Issues and verifies signed access tokens
+// The token carries userId, role and name claims, so a request can be authenticated
+// from the token alone - no UserService.loadUserByUsername and no BCrypt after login.
+@Component
+public class JwtUtil {
+
+    private static final String CLAIM_USER_ID = "userId";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_NAME = "name";
+
+    // Must be at least 32 bytes for HS256 - configure in application.properties
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.expiration-ms:86400000}")
+    private long expirationMs;
+
+    // Key and parser are built once and reused for every request
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
+    public String generateToken(AuthenticatedUser user) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole())
+                .claim(CLAIM_NAME, user.getDisplayName())
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + expirationMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    // Returns the principal encoded in the token, or empty if the token is invalid/expired
+    public Optional<AuthenticatedUser> parseToken(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Number userId = claims.get(CLAIM_USER_ID, Number.class);
+            String role = claims.get(CLAIM_ROLE, String.class);
+            if (userId == null || role == null) {
+                return Optional.empty(); // Token issued before claims were added - force re-login
+            }
+            return Optional.of(new AuthenticatedUser(
+                    userId.longValue(),
+                    claims.getSubject(),
+                    null, // Password is never part of the token
+                    role,
+                    claims.get(CLAIM_NAME, String.class),
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+            ));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
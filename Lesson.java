@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Data
@@ -23,8 +24,9 @@ public class Lesson {
 
     // ✅ CHANGED: Use Course instead of ClassEntity
     @NotNull(message = "Course cannot be null")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY) // Access checks only need course_id
     @JoinColumn(name = "course_id") // Changed from class_id
+    @ToString.Exclude
     private Course course; // Changed from ClassEntity classEntity
 
     // Getters and setters
@@ -1,17 +1,28 @@
 package com.elearnhub.teacher_service.Controller;
 
 import com.elearnhub.teacher_service.dto.LessonDTO;
+import com.elearnhub.teacher_service.dto.LessonUploadStatus;
 import com.elearnhub.teacher_service.entity.Course;
+import com.elearnhub.teacher_service.entity.Lesson;
+import com.elearnhub.teacher_service.entity.LessonUploadSession;
+import com.elearnhub.teacher_service.service.BlobStore;
 import com.elearnhub.teacher_service.service.LessonService;
+import com.elearnhub.teacher_service.service.LessonUploadService;
 import com.elearnhub.teacher_service.service.CourseService;
-import com.elearnhub.teacher_service.entity.User;
-import com.elearnhub.teacher_service.service.UserService;
+import com.elearnhub.teacher_service.security.AuthenticatedUser;
+import com.elearnhub.teacher_service.security.CurrentUser;
+import com.elearnhub.teacher_service.util.StreamingFileWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -24,6 +35,9 @@ import java.util.Optional;
 @RequestMapping("/lessons")
 public class LessonController {
 
+    // Browsers keep lesson files but revalidate every time, so access checks still run (a cheap 304)
+    private static final CacheControl LESSON_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private LessonService lessonService;
 
@@ -31,7 +45,10 @@ public class LessonController {
     private CourseService courseService;
 
     @Autowired
-    private UserService userService;
+    private LessonUploadService lessonUploadService;
+
+    @Autowired
+    private BlobStore blobStore;
 
     // ✅ FIXED: Use courseId instead of classId, and find Course first
     @PostMapping
@@ -41,13 +58,8 @@ public class LessonController {
             @RequestParam String title,
             @RequestParam(required = false) String content, // Make content optional
             @RequestPart MultipartFile file,
-            Authentication authentication) throws IOException {
+            @CurrentUser AuthenticatedUser teacher) throws IOException {
         try {
-            // Get authenticated teacher
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             // Find Course by ID (frontend sends Course ID)
             Optional<Course> courseOptional = courseService.getCourseById(classId);
             
@@ -78,17 +90,168 @@ public class LessonController {
         }
     }
 
+    // ✅ Chunked, resumable lesson upload (large recordings)
+    // 1. POST   /lessons/uploads { classId, title, fileName, size }  -> 201 { uploadId, offset: 0, chunkSize, ... }
+    // 2. PUT    /lessons/uploads/{uploadId}?offset=N  body = raw chunk bytes (at most chunkSize),
+    //           header X-Chunk-SHA256: hex digest of the chunk      -> { offset: N + length, ... }
+    //           Wrong offset -> 409 { message, offset }; bad checksum -> 400, resend the same chunk
+    // 3. GET    /lessons/uploads/{uploadId}                          -> { offset } to resume after a failure
+    // 4. POST   /lessons/uploads/{uploadId}/complete                 -> 201 LessonDTO (retry-safe)
+    //    DELETE /lessons/uploads/{uploadId} abandons the upload
+    @PostMapping("/uploads")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> createUpload(
+            @RequestBody UploadSessionRequest request,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            if (request.getClassId() == null || request.getTitle() == null || request.getTitle().isBlank()
+                    || request.getFileName() == null || request.getSize() == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "classId, title, fileName and size are required");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+
+            Optional<Course> courseOptional = courseService.getCourseById(request.getClassId());
+            if (courseOptional.isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Course not found with id: " + request.getClassId());
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+            if (!courseOptional.get().getTeacherId().equals(teacher.getId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: Course does not belong to this teacher");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            LessonUploadStatus status = lessonUploadService.createSession(teacher.getId(), request.getClassId(),
+                    request.getTitle(), request.getFileName(), request.getSize());
+            return ResponseEntity.status(HttpStatus.CREATED).body(status);
+        } catch (StreamingFileWriter.PayloadTooLargeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to start upload: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> getUpload(
+            @PathVariable String uploadId,
+            @CurrentUser AuthenticatedUser teacher) {
+        Optional<LessonUploadSession> session = lessonUploadService.findSession(uploadId);
+        ResponseEntity<?> denied = checkUploadAccess(session, teacher);
+        if (denied != null) {
+            return denied;
+        }
+        return ResponseEntity.ok(lessonUploadService.toStatus(session.get()));
+    }
+
+    @PutMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader("X-Chunk-SHA256") String sha256,
+            HttpServletRequest request,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            Optional<LessonUploadSession> session = lessonUploadService.findSession(uploadId);
+            ResponseEntity<?> denied = checkUploadAccess(session, teacher);
+            if (denied != null) {
+                return denied;
+            }
+
+            LessonUploadStatus status = lessonUploadService.writeChunk(session.get(), offset, sha256, request.getInputStream());
+            return ResponseEntity.ok(status);
+        } catch (LessonUploadService.OffsetMismatchException e) {
+            return uploadOffsetError(HttpStatus.CONFLICT, e.getMessage(), e.getCommittedOffset());
+        } catch (LessonUploadService.ChecksumMismatchException e) {
+            return uploadOffsetError(HttpStatus.BAD_REQUEST, e.getMessage(), e.getCommittedOffset());
+        } catch (StreamingFileWriter.PayloadTooLargeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to upload chunk: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> completeUpload(
+            @PathVariable String uploadId,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            Optional<LessonUploadSession> session = lessonUploadService.findSession(uploadId);
+            ResponseEntity<?> denied = checkUploadAccess(session, teacher);
+            if (denied != null) {
+                return denied;
+            }
+
+            LessonDTO lessonDTO = lessonUploadService.complete(session.get());
+            return ResponseEntity.status(HttpStatus.CREATED).body(lessonDTO);
+        } catch (LessonUploadService.OffsetMismatchException e) {
+            return uploadOffsetError(HttpStatus.CONFLICT, "Upload is incomplete: " + e.getMessage(), e.getCommittedOffset());
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to upload lesson: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> cancelUpload(
+            @PathVariable String uploadId,
+            @CurrentUser AuthenticatedUser teacher) {
+        try {
+            Optional<LessonUploadSession> session = lessonUploadService.findSession(uploadId);
+            ResponseEntity<?> denied = checkUploadAccess(session, teacher);
+            if (denied != null) {
+                return denied;
+            }
+
+            lessonUploadService.cancel(session.get());
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to cancel upload: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @GetMapping("/class/{classId}")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> getLessonsByClass(
             @PathVariable Long classId,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser teacher) {
         try {
-            // Get authenticated teacher
-            String username = authentication.getName();
-            User teacher = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
             // Verify course exists and belongs to teacher
             Optional<Course> courseOptional = courseService.getCourseById(classId);
             
@@ -114,5 +277,212 @@ public class LessonController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
-}
 
+    // ✅ Lessons of a course for an enrolled student
+    @GetMapping("/student/class/{classId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<?> getLessonsByClassForStudent(
+            @PathVariable Long classId,
+            @CurrentUser AuthenticatedUser student) {
+        try {
+            // Membership comes from the in-memory enrollment index (no query)
+            if (!courseService.isEnrolled(student.getId(), classId)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: You are not enrolled in this course");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            List<LessonDTO> lessons = lessonService.getLessonsByClass(classId);
+            return ResponseEntity.ok(lessons);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to fetch lessons: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Lesson file for the owning teacher (download = attachment, view = inline).
+    // Like the student endpoints these honour Range/If-Range, so downloads can resume.
+    @GetMapping("/{lessonId}/download")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> downloadLesson(
+            @PathVariable Long lessonId,
+            @RequestHeader HttpHeaders requestHeaders,
+            WebRequest webRequest,
+            @CurrentUser AuthenticatedUser teacher) {
+        return serveLessonForTeacher(lessonId, teacher, "attachment", requestHeaders, webRequest);
+    }
+
+    @GetMapping("/{lessonId}/view")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> viewLesson(
+            @PathVariable Long lessonId,
+            @RequestHeader HttpHeaders requestHeaders,
+            WebRequest webRequest,
+            @CurrentUser AuthenticatedUser teacher) {
+        return serveLessonForTeacher(lessonId, teacher, "inline", requestHeaders, webRequest);
+    }
+
+    @GetMapping("/student/{lessonId}/download")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<?> downloadLessonForStudent(
+            @PathVariable Long lessonId,
+            @RequestHeader HttpHeaders requestHeaders,
+            WebRequest webRequest,
+            @CurrentUser AuthenticatedUser student) {
+        return serveLessonForStudent(lessonId, student, "attachment", requestHeaders, webRequest);
+    }
+
+    @GetMapping("/student/{lessonId}/view")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<?> viewLessonForStudent(
+            @PathVariable Long lessonId,
+            @RequestHeader HttpHeaders requestHeaders,
+            WebRequest webRequest,
+            @CurrentUser AuthenticatedUser student) {
+        return serveLessonForStudent(lessonId, student, "inline", requestHeaders, webRequest);
+    }
+
+    private ResponseEntity<?> serveLessonForTeacher(Long lessonId, AuthenticatedUser teacher, String disposition,
+                                                    HttpHeaders requestHeaders, WebRequest webRequest) {
+        try {
+            Optional<Lesson> lessonOptional = lessonService.getLessonById(lessonId);
+            if (lessonOptional.isEmpty() || lessonOptional.get().getCourse() == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Lesson not found with id: " + lessonId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+
+            Lesson lesson = lessonOptional.get();
+            Optional<Course> courseOptional = courseService.getCourseById(lesson.getCourse().getId());
+            if (courseOptional.isEmpty() || !courseOptional.get().getTeacherId().equals(teacher.getId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: Lesson does not belong to this teacher");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            return serveLessonFile(lesson, disposition, requestHeaders, webRequest);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to read file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // Shared by download/view - only the Content-Disposition differs.
+    // Cost per click: one lesson lookup by id, no course or roster queries.
+    private ResponseEntity<?> serveLessonForStudent(Long lessonId, AuthenticatedUser student, String disposition,
+                                                    HttpHeaders requestHeaders, WebRequest webRequest) {
+        try {
+            Optional<Lesson> lessonOptional = lessonService.getLessonById(lessonId);
+            if (lessonOptional.isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Lesson not found with id: " + lessonId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+
+            Lesson lesson = lessonOptional.get();
+
+            if (lesson.getCourse() == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Lesson course not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+
+            // getCourse().getId() reads the foreign key from the proxy - the course is not loaded
+            if (!courseService.isEnrolled(student.getId(), lesson.getCourse().getId())) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Unauthorized: You are not enrolled in this course");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+            }
+
+            return serveLessonFile(lesson, disposition, requestHeaders, webRequest);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to read file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // Access already checked - 304, 200, 206 (single or multipart ranges), 416, or a 302 to storage
+    private ResponseEntity<?> serveLessonFile(Lesson lesson, String disposition, HttpHeaders requestHeaders,
+                                              WebRequest webRequest) throws IOException {
+        // Blob files have no extension - detect the type from the original file name
+        String originalFileName = lessonService.getOriginalFileName(lesson);
+        MediaType contentType = MediaTypeFactory.getMediaType(originalFileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        ResponseEntity<?> response = blobStore.serve(lesson.getFilePath(), lessonService.resolveLegacyFile(lesson),
+                contentType, disposition + "; filename=\"" + originalFileName + "\"",
+                LESSON_CACHE_CONTROL, requestHeaders, webRequest);
+        return response != null ? response : lessonFileNotFound(lesson);
+    }
+
+    private ResponseEntity<?> lessonFileNotFound(Lesson lesson) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", "File not found for lesson: " + lesson.getId());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    // 404 for unknown uploads, 403 for another teacher's; null when the teacher may use it
+    private ResponseEntity<?> checkUploadAccess(Optional<LessonUploadSession> session, AuthenticatedUser teacher) {
+        if (session.isEmpty()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Upload not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+        if (!session.get().getTeacherId().equals(teacher.getId())) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Unauthorized: Upload does not belong to this teacher");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+        }
+        return null;
+    }
+
+    private ResponseEntity<?> uploadOffsetError(HttpStatus status, String message, long offset) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", message);
+        error.put("offset", offset);
+        return ResponseEntity.status(status).body(error);
+    }
+
+    // Inner class for the chunked upload request
+    static class UploadSessionRequest {
+        private Long classId; // Course ID, as in uploadLesson
+        private String title;
+        private String fileName;
+        private Long size;
+
+        public Long getClassId() {
+            return classId;
+        }
+
+        public void setClassId(Long classId) {
+            this.classId = classId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public void setFileName(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public Long getSize() {
+            return size;
+        }
+
+        public void setSize(Long size) {
+            this.size = size;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.elearnhub.teacher_service.entity.Course;
 import com.elearnhub.teacher_service.entity.Lesson;
 import com.elearnhub.teacher_service.repository.LessonRepository;
 import com.elearnhub.teacher_service.repository.CourseRepository;
+import com.elearnhub.teacher_service.util.TransactionUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -12,13 +13,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +30,9 @@ public class LessonService {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private BlobStore blobStore;
+
     // File upload directory - configure this in application.properties
     @Value("${file.upload-dir:uploads/lessons}")
     private String uploadDir;
@@ -40,22 +42,29 @@ public class LessonService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
 
-        // Save file
-        String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        Path uploadPath = Paths.get(uploadDir);
-        
-        // Create directory if it doesn't exist
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        // ✅ Save file in the content-addressed store - identical files are kept once
+        BlobStore.StoredBlob blob;
+        try (InputStream content = file.getInputStream()) {
+            blob = blobStore.put(content, Long.MAX_VALUE); // Size is already capped by the multipart limits
         }
-        
-        Path filePath = uploadPath.resolve(fileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        TransactionUtil.afterRollback(() -> blobStore.release(blob.id()));
+        return saveLesson(course, title, blob, file.getOriginalFilename());
+    }
+
+    // ✅ Lesson for a file that is already in the blob store (chunked uploads).
+    // Takes over the caller's reference once the transaction commits; on rollback the caller
+    // still holds it (and can retry).
+    public LessonDTO createLesson(Long courseId, String title, BlobStore.StoredBlob blob, String fileName) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
+        return saveLesson(course, title, blob, fileName);
+    }
 
+    private LessonDTO saveLesson(Course course, String title, BlobStore.StoredBlob blob, String fileName) {
         // Create Lesson entity
         Lesson lesson = new Lesson();
         lesson.setTitle(title);
-        lesson.setFilePath("/lessons/" + fileName); // Store relative path or full URL
+        lesson.setFilePath(BlobStore.toFilePath(blob.id(), fileName));
         lesson.setCourse(course); // ✅ Use Course instead of ClassEntity
 
         Lesson savedLesson = lessonRepository.save(lesson);
@@ -73,6 +82,30 @@ public class LessonService {
                 .collect(Collectors.toList());
     }
 
+    public Optional<Lesson> getLessonById(Long lessonId) {
+        return lessonRepository.findById(lessonId);
+    }
+
+    public Optional<LessonDTO> getLessonDTO(Long lessonId) {
+        return lessonRepository.findById(lessonId).map(this::convertToDTO);
+    }
+
+    // Lessons store "/blobs/<sha256>/<name>" (served by BlobStore); older ones
+    // "/lessons/<uuid>_<name>" are files in uploadDir on this node
+    public Path resolveLegacyFile(Lesson lesson) {
+        return Paths.get(uploadDir).resolve(Paths.get(lesson.getFilePath()).getFileName());
+    }
+
+    // Blob paths end in the original name; legacy ones need the "<uuid>_" prefix stripped
+    public String getOriginalFileName(Lesson lesson) {
+        String fileName = Paths.get(lesson.getFilePath()).getFileName().toString();
+        if (BlobStore.blobIdOf(lesson.getFilePath()) != null) {
+            return fileName;
+        }
+        int separator = fileName.indexOf('_');
+        return separator >= 0 ? fileName.substring(separator + 1) : fileName;
+    }
+
     private LessonDTO convertToDTO(Lesson lesson) {
         LessonDTO dto = new LessonDTO();
         dto.setId(lesson.getId());
@@ -0,0 +1,318 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.dto.LessonDTO;
+import com.elearnhub.teacher_service.dto.LessonUploadStatus;
+import com.elearnhub.teacher_service.entity.LessonUploadSession;
+import com.elearnhub.teacher_service.util.StreamingFileWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ✅ Chunked, resumable lesson uploads.
+//   create   -> session row + empty staging file <blob-dir>/incoming/upload-<id>
+//   chunk    -> body written at its offset with positional FileChannel writes, SHA-256 checked,
+//               flushed, and only then committed_offset advanced (a failed chunk is just resent)
+//   status   -> committed offset, where a client resumes after a network blip
+//   complete -> the staging file is hashed in place and renamed into the blob store - the
+//               chunks are never copied or concatenated - and the Lesson row is created
+//               (each step recorded on the session, so a retry after a crash resumes it)
+// Each request handles at most one chunk, so no request holds a thread (or a connection) for
+// the length of a 1 GB lecture. Deliberately NOT @Transactional, like SubmissionFileService.
+@Service
+public class LessonUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Value("${lesson.upload.max-bytes:2147483648}")
+    private long maxBytes;
+
+    @Value("${lesson.upload.chunk-bytes:8388608}")
+    private long chunkBytes;
+
+    // Sessions without a chunk for this long are removed with their staged data
+    @Value("${lesson.upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    // Creates the lesson and marks the session completed together
+    private TransactionTemplate completeTransaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        completeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // Uploads with a chunk, completion or cancel in progress - a second concurrent request gets a 409
+    // instead of writing the same byte range at the same time
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    public LessonUploadStatus createSession(Long teacherId, Long courseId, String title, String fileName, long size)
+            throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        if (size > maxBytes) {
+            throw new StreamingFileWriter.PayloadTooLargeException(maxBytes);
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path staging = stagingPath(id);
+        Files.createDirectories(staging.getParent());
+        Files.createFile(staging);
+
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(
+                "INSERT INTO lesson_upload_session (id, teacher_id, course_id, title, file_name, size, "
+                        + "committed_offset, lesson_id, updated_at) VALUES (?, ?, ?, ?, ?, ?, 0, NULL, ?)",
+                id, teacherId, courseId, title, fileName, size, now);
+
+        LessonUploadSession session = new LessonUploadSession();
+        session.setId(id);
+        session.setFileName(fileName);
+        session.setSize(size);
+        session.setUpdatedAt(now);
+        return toStatus(session);
+    }
+
+    public Optional<LessonUploadSession> findSession(String uploadId) {
+        List<LessonUploadSession> sessions = jdbcTemplate.query(
+                "SELECT * FROM lesson_upload_session WHERE id = ?",
+                new BeanPropertyRowMapper<>(LessonUploadSession.class), uploadId);
+        return sessions.stream().findFirst();
+    }
+
+    // ✅ Writes one chunk at offset. The offset must equal the committed offset (otherwise
+    // OffsetMismatchException carries the offset to resume from); sha256 is the chunk's hex digest.
+    public LessonUploadStatus writeChunk(LessonUploadSession session, long offset, String sha256, InputStream body)
+            throws IOException {
+        if (session.getLessonId() != null) {
+            throw new IllegalStateException("Upload is already complete");
+        }
+        if (offset != session.getCommittedOffset()) {
+            throw new OffsetMismatchException(session.getCommittedOffset());
+        }
+        if (!active.add(session.getId())) {
+            throw new IllegalStateException("Another request for this upload is in progress");
+        }
+        try {
+            long limit = Math.min(chunkBytes, session.getSize() - offset);
+            MessageDigest digest = StreamingFileWriter.newSha256();
+            long position = offset;
+
+            ReadableByteChannel source = Channels.newChannel(body);
+            try (FileChannel out = FileChannel.open(stagingPath(session.getId()), StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                int read;
+                while ((read = source.read(buffer)) != -1) {
+                    if (position + read - offset > limit) {
+                        throw new StreamingFileWriter.PayloadTooLargeException(limit);
+                    }
+                    buffer.flip();
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        position += out.write(buffer, position); // Positional - no seek, no shared file pointer
+                    }
+                    buffer.clear();
+                }
+                out.force(false); // On disk before the offset says so
+            }
+
+            if (position == offset) {
+                throw new IllegalArgumentException("Empty chunk");
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(sha256)) {
+                // Bytes past the committed offset are simply overwritten by the retry
+                throw new ChecksumMismatchException(offset);
+            }
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE lesson_upload_session SET committed_offset = ?, updated_at = ? "
+                            + "WHERE id = ? AND committed_offset = ? AND lesson_id IS NULL",
+                    position, LocalDateTime.now(), session.getId(), offset);
+            if (updated == 0) {
+                throw new IllegalStateException("Upload was modified concurrently");
+            }
+            session.setCommittedOffset(position);
+            session.setUpdatedAt(LocalDateTime.now());
+            return toStatus(session);
+        } finally {
+            active.remove(session.getId());
+        }
+    }
+
+    // ✅ Turns a fully received upload into a Lesson. Safe to retry at any point:
+    //   1. the staged data is hashed and the blob id recorded on the session
+    //   2. the staging file moves into the blob store - the reference it takes belongs to the session
+    //   3. one transaction creates the Lesson (which takes the reference over) and sets lesson_id
+    // A retry skips what is done: a recorded blob id without a staging file means step 2 happened,
+    // and a completed session returns the lesson it created.
+    public LessonDTO complete(LessonUploadSession session) throws IOException {
+        if (session.getLessonId() != null) {
+            return lessonService.getLessonDTO(session.getLessonId())
+                    .orElseThrow(() -> new IllegalStateException("Lesson of this upload was deleted"));
+        }
+        if (session.getCommittedOffset() != session.getSize()) {
+            throw new OffsetMismatchException(session.getCommittedOffset());
+        }
+        if (!active.add(session.getId())) {
+            throw new IllegalStateException("Another request for this upload is in progress");
+        }
+        try {
+            Path staging = stagingPath(session.getId());
+            String blobId = session.getBlobId();
+            if (blobId == null) {
+                if (Files.size(staging) != session.getSize()) {
+                    throw new IllegalStateException("Staged upload has an unexpected size");
+                }
+                blobId = StreamingFileWriter.sha256(staging);
+                int updated = jdbcTemplate.update(
+                        "UPDATE lesson_upload_session SET blob_id = ?, updated_at = ? WHERE id = ? AND blob_id IS NULL",
+                        blobId, LocalDateTime.now(), session.getId());
+                if (updated == 0) {
+                    throw new IllegalStateException("Upload was modified concurrently");
+                }
+                session.setBlobId(blobId);
+            }
+            if (Files.exists(staging)) {
+                blobStore.adopt(staging, blobId); // Already hashed - not read again
+            }
+
+            BlobStore.StoredBlob blob = new BlobStore.StoredBlob(blobId, session.getSize(), false);
+            LessonDTO lesson = completeTransaction.execute(status -> {
+                LessonDTO created = lessonService.createLesson(
+                        session.getCourseId(), session.getTitle(), blob, session.getFileName());
+                int updated = jdbcTemplate.update(
+                        "UPDATE lesson_upload_session SET lesson_id = ?, updated_at = ? WHERE id = ? AND lesson_id IS NULL",
+                        created.getId(), LocalDateTime.now(), session.getId());
+                if (updated == 0) {
+                    throw new IllegalStateException("Upload was completed concurrently"); // Rolls the lesson back
+                }
+                return created;
+            });
+            session.setLessonId(lesson.getId());
+            return lesson;
+        } finally {
+            active.remove(session.getId());
+        }
+    }
+
+    public void cancel(LessonUploadSession session) throws IOException {
+        if (!active.add(session.getId())) {
+            throw new IllegalStateException("Another request for this upload is in progress");
+        }
+        try {
+            // Re-read: a completion may have finished since the caller loaded the session
+            Optional<LessonUploadSession> current = findSession(session.getId());
+            if (current.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.update("DELETE FROM lesson_upload_session WHERE id = ?", session.getId());
+            discardStagedData(session.getId(), current.get().getBlobId(), current.get().getLessonId());
+        } finally {
+            active.remove(session.getId());
+        }
+    }
+
+    public LessonUploadStatus toStatus(LessonUploadSession session) {
+        return new LessonUploadStatus(session.getId(), session.getFileName(), session.getSize(),
+                session.getCommittedOffset(), chunkBytes, session.getLessonId(),
+                session.getUpdatedAt().plusHours(sessionTtlHours));
+    }
+
+    // Removes abandoned (and long completed) sessions together with their staged data
+    @Scheduled(fixedDelayString = "${lesson.upload.cleanup-interval-ms:3600000}")
+    public void removeExpiredSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(sessionTtlHours);
+        List<Map<String, Object>> expired = jdbcTemplate.queryForList(
+                "SELECT id, blob_id, lesson_id FROM lesson_upload_session WHERE updated_at < ?", cutoff);
+        for (Map<String, Object> row : expired) {
+            String id = (String) row.get("id");
+            if (active.contains(id)) {
+                continue;
+            }
+            // Re-checked in the DELETE: a chunk (or a completion step) may have happened meanwhile
+            int deleted = jdbcTemplate.update(
+                    "DELETE FROM lesson_upload_session WHERE id = ? AND updated_at < ?", id, cutoff);
+            if (deleted == 1) {
+                try {
+                    Number lessonId = (Number) row.get("lesson_id");
+                    discardStagedData(id, (String) row.get("blob_id"), lessonId != null ? lessonId.longValue() : null);
+                } catch (IOException e) {
+                    System.err.println("⚠️ Failed to delete staged upload " + id + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Deletes the staging file, or - once it has moved into the blob store without a lesson
+    // taking it over - releases the reference the session held
+    private void discardStagedData(String uploadId, String blobId, Long lessonId) throws IOException {
+        if (!Files.deleteIfExists(stagingPath(uploadId)) && blobId != null && lessonId == null) {
+            blobStore.release(blobId);
+        }
+    }
+
+    private Path stagingPath(String uploadId) {
+        return blobStore.incomingPath("upload-" + uploadId);
+    }
+
+    // Mapped to 409 Conflict with the offset the client has to continue from
+    public static class OffsetMismatchException extends RuntimeException {
+        private final long committedOffset;
+
+        public OffsetMismatchException(long committedOffset) {
+            super("Upload continues at offset " + committedOffset);
+            this.committedOffset = committedOffset;
+        }
+
+        public long getCommittedOffset() {
+            return committedOffset;
+        }
+    }
+
+    // Mapped to 400 - the chunk was not committed and can be resent at the same offset
+    public static class ChecksumMismatchException extends RuntimeException {
+        private final long committedOffset;
+
+        public ChecksumMismatchException(long committedOffset) {
+            super("Chunk checksum mismatch at offset " + committedOffset);
+            this.committedOffset = committedOffset;
+        }
+
+        public long getCommittedOffset() {
+            return committedOffset;
+        }
+    }
+}
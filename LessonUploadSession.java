@@ -0,0 +1,54 @@
+package com.elearnhub.teacher_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// ✅ One row per chunked lesson upload (see LessonUploadService).
+// committedOffset = bytes received, checksum-verified and flushed; the data itself is staged in
+// <blob-dir>/incoming/upload-<id>. Rows are written with plain SQL (conditional offset updates),
+// the entity only exists so the table is created with the schema:
+//   CREATE TABLE lesson_upload_session (id CHAR(36) PRIMARY KEY, teacher_id BIGINT NOT NULL,
+//                                       course_id BIGINT NOT NULL, title VARCHAR(255) NOT NULL,
+//                                       file_name VARCHAR(255) NOT NULL, size BIGINT NOT NULL,
+//                                       committed_offset BIGINT NOT NULL, blob_id CHAR(64) NULL,
+//                                       lesson_id BIGINT NULL, updated_at DATETIME(6) NOT NULL,
+//                                       INDEX idx_lesson_upload_session_updated (updated_at));
+@Entity
+@Table(name = "lesson_upload_session", indexes = @Index(name = "idx_lesson_upload_session_updated", columnList = "updated_at"))
+@Data
+@NoArgsConstructor
+public class LessonUploadSession {
+    @Id
+    @Column(length = 36)
+    private String id; // Random UUID, also the upload URL token
+
+    @Column(name = "teacher_id", nullable = false)
+    private Long teacherId;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private long size; // Declared total size
+
+    @Column(name = "committed_offset", nullable = false)
+    private long committedOffset;
+
+    @Column(name = "blob_id", length = 64)
+    private String blobId; // SHA-256 of the staged data, recorded before it moves into the blob store
+
+    @Column(name = "lesson_id")
+    private Long lessonId; // Set once completed - a retried "complete" returns this lesson
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
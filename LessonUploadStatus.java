@@ -0,0 +1,10 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.time.LocalDateTime;
+
+// ✅ State of a chunked lesson upload as seen by the client.
+// offset = where the next chunk starts (everything before it is stored and verified);
+// chunkSize = the largest chunk the server accepts; lessonId is set once completed.
+public record LessonUploadStatus(String uploadId, String fileName, long size, long offset,
+                                 long chunkSize, Long lessonId, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,133 @@
+package com.elearnhub.teacher_service.storage;
+
+import com.elearnhub.teacher_service.util.FileRangeResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+// ✅ Blob storage on the local file system (single node, or a shared mount).
+// Keys map to files under file.blob-dir, the layout BlobStore has always used, so existing
+// uploads keep working. Reads use FileChannel.transferTo; presigned URLs are not supported.
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStorage implements BlobStorage {
+
+    @Value("${file.blob-dir:uploads/blobs}")
+    private String blobDir;
+
+    @Override
+    public Optional<ObjectInfo> stat(String key) throws IOException {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return Optional.of(new ObjectInfo(attributes.size(), attributes.lastModifiedTime().toMillis()));
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size) throws IOException {
+        // Written next to the blobs and renamed, so readers never see a partial file
+        Path partial = Paths.get(blobDir, "incoming", UUID.randomUUID() + ".part");
+        Files.createDirectories(partial.getParent());
+        try {
+            try (FileChannel out = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long written = out.transferFrom(Channels.newChannel(content), 0, size);
+                if (written != size) {
+                    throw new EOFException("Expected " + size + " bytes for " + key + ", got " + written);
+                }
+            }
+            store(key, partial);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    @Override
+    public void store(String key, Path stagedFile) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Files.move(stagedFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public InputStream get(String key, long start, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        channel.position(start);
+        InputStream in = Channels.newInputStream(channel);
+        return new InputStream() {
+            private long remaining = length;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int b = in.read();
+                if (b >= 0) {
+                    remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = in.read(buffer, offset, (int) Math.min(len, remaining));
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        };
+    }
+
+    // Zero-copy where the platform allows it
+    @Override
+    public void transferTo(String key, long start, long length, OutputStream out) throws IOException {
+        FileRangeResponse.transfer(resolve(key), start, length, out);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<URI> presignedGetUrl(String key, Duration validFor, String contentType, String contentDisposition) {
+        return Optional.empty(); // Files are only reachable through the app
+    }
+
+    private Path resolve(String key) {
+        return Paths.get(blobDir).resolve(key);
+    }
+}
@@ -0,0 +1,142 @@
+package com.elearnhub.teacher_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// ✅ Runs BCrypt verification/hashing on a dedicated, size-limited pool.
+// A login storm queues here (up to queue-capacity) and is rejected beyond that,
+// instead of occupying Tomcat request threads needed by grading, downloads, etc.
+@Service
+public class PasswordHashingService {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 0 = half of the available cores (at least 1)
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.hashing.queue-capacity:200}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private Timer queueWaitTimer;
+    private Timer verifyTimer;
+    private Timer encodeTimer;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        queueWaitTimer = Timer.builder("auth.hashing.queue.wait")
+                .description("Time a login/registration waited for a hashing thread")
+                .register(meterRegistry);
+        verifyTimer = Timer.builder("auth.hashing.time")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+        encodeTimer = Timer.builder("auth.hashing.time")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("auth.hashing.rejected")
+                .description("Logins/registrations rejected because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.hashing.queue.size", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // Loads the user and verifies the password (AuthenticationManager -> UserService + BCrypt)
+    public CompletableFuture<Authentication> authenticate(String username, String password) {
+        return submit(verifyTimer, () -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, password)));
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    private <T> CompletableFuture<T> submit(Timer workTimer, Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    future.complete(workTimer.record(task));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new CapacityExceededException(estimateRetryAfterSeconds());
+        }
+        return future;
+    }
+
+    // Rough time to drain the current queue, based on the observed mean hashing time
+    private long estimateRetryAfterSeconds() {
+        double meanMs = verifyTimer.mean(TimeUnit.MILLISECONDS);
+        if (meanMs <= 0) {
+            meanMs = 100; // No samples yet - typical BCrypt cost-10 time
+        }
+        double drainMs = executor.getQueue().size() * meanMs / executor.getMaximumPoolSize();
+        return Math.max(1, (long) Math.ceil(drainMs / 1000));
+    }
+
+    // Thrown when the hashing queue is full - mapped to 429 Too Many Requests
+    public static class CapacityExceededException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public CapacityExceededException(long retryAfterSeconds) {
+            super("Too many login attempts in progress, please retry shortly");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.storage.BlobStorage;
+import com.elearnhub.teacher_service.util.FileRangeResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// ✅ Profile pictures for teachers and students.
+// New pictures go into the blob store, so User.profilePicture ("/blobs/<sha256>/<name>") carries
+// the content hash: the picture endpoints answer If-None-Match with a 304 straight from the
+// (cached) user summary, without opening the image.
+// Square thumbnails (32/64/256 px) are generated once per picture content on a background pool
+// and kept in BlobStorage under thumbnails/ab/<sha256>/<size>.<jpg|png>; a sidebar avatar is a
+// ~2 KB object instead of a multi-megabyte upload.
+@Service
+public class ProfilePictureService {
+
+    public static final long MAX_BYTES = 5 * 1024 * 1024;
+    public static final int[] THUMBNAIL_SIZES = {32, 64, 256};
+    // Refuse to decode anything larger (a 5 MB PNG can still expand to gigabytes of pixels)
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    // Avatars are fetched on every page: reuse for 5 minutes, then revalidate (304)
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePrivate();
+
+    @Autowired
+    private BlobStore blobStore;
+
+    // Pictures uploaded before the blob store existed ("/profiles/<uuid>_<name>")
+    @Value("${file.profile-upload-dir:uploads/profiles}")
+    private String profileUploadDir;
+
+    // Thumbnails are derived objects next to the blobs (not reference counted - they are recorded
+    // with BlobStore.addDerivedKeys and deleted together with their blob by collectGarbage)
+    @Autowired
+    private BlobStorage storage;
+
+    @Value("${profile.thumbnails.threads:1}")
+    private int threads;
+
+    @Value("${profile.thumbnails.queue-capacity:100}")
+    private int queueCapacity;
+
+    // Thumbnail generation never runs on a request thread
+    private ThreadPoolExecutor executor;
+    // Blob ids queued or being processed (an upload and a request for a missing size may race)
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "profile-thumbnails-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // Stores the image, queues its thumbnails and returns the value for User.profilePicture
+    public String store(MultipartFile file) throws IOException {
+        BlobStore.StoredBlob blob;
+        try (InputStream content = file.getInputStream()) {
+            blob = blobStore.put(content, MAX_BYTES);
+        }
+        String profilePicture = BlobStore.toFilePath(blob.id(), file.getOriginalFilename());
+        scheduleThumbnails(blob.id(), thumbnailFormat(profilePicture));
+        return profilePicture;
+    }
+
+    // Call once the user no longer points at the picture (replaced, or the update failed)
+    public void release(String profilePicture) {
+        String blobId = BlobStore.blobIdOf(profilePicture);
+        if (blobId != null) {
+            blobStore.release(blobId);
+        }
+    }
+
+    // Legacy pictures are files in profileUploadDir on this node
+    private Path resolveLegacyFile(String profilePicture) {
+        String name = profilePicture.substring(profilePicture.lastIndexOf('/') + 1);
+        return Paths.get(profileUploadDir).resolve(name);
+    }
+
+    // Blob files have no extension - the type comes from the original file name
+    public MediaType getMediaType(String profilePicture) {
+        return MediaTypeFactory.getMediaType(profilePicture).orElse(MediaType.IMAGE_JPEG);
+    }
+
+    // Short token that changes with the picture - put it in avatar URLs (?v=) to bust caches
+    public static String versionOf(String profilePicture) {
+        String blobId = BlobStore.blobIdOf(profilePicture);
+        if (blobId != null) {
+            return blobId.substring(0, 12);
+        }
+        return Integer.toHexString(profilePicture.hashCode());
+    }
+
+    // ✅ Serves a profile picture: the smallest thumbnail >= size when one exists, otherwise the
+    // original. 304 is decided from the stored hash before any file is touched.
+    public ResponseEntity<?> serve(String profilePicture, Integer size, HttpHeaders requestHeaders,
+                                   WebRequest webRequest) throws IOException {
+        if (profilePicture == null || profilePicture.isEmpty()) {
+            return notFound("Profile picture not found");
+        }
+
+        String blobId = BlobStore.blobIdOf(profilePicture);
+        if (blobId != null && size != null) {
+            int variant = thumbnailSizeFor(size);
+            String etag = "\"" + blobId + "-" + variant + "\"";
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+            }
+            String format = thumbnailFormat(profilePicture);
+            String key = thumbnailKey(blobId, variant, format);
+            Optional<BlobStorage.ObjectInfo> thumbnail = storage.stat(key);
+            if (thumbnail.isPresent()) {
+                MediaType type = format.equals("png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG;
+                return FileRangeResponse.serve(storage, key, thumbnail.get(), type, null, etag, CACHE_CONTROL, requestHeaders);
+            }
+            // Not generated yet (or uploaded before thumbnails existed) - original this time
+            scheduleThumbnails(blobId, format);
+        }
+
+        ResponseEntity<?> response = blobStore.serve(profilePicture, resolveLegacyFile(profilePicture),
+                getMediaType(profilePicture), null, CACHE_CONTROL, requestHeaders, webRequest);
+        return response != null ? response : notFound("Profile picture file not found");
+    }
+
+    // Smallest precomputed size that is at least the requested one (the largest if none is)
+    public static int thumbnailSizeFor(int requested) {
+        for (int size : THUMBNAIL_SIZES) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return THUMBNAIL_SIZES[THUMBNAIL_SIZES.length - 1];
+    }
+
+    // PNG/GIF pictures may be transparent - their thumbnails stay PNG, everything else is JPEG.
+    // Decided from the name, so serving knows the thumbnail's key without looking it up.
+    private String thumbnailFormat(String profilePicture) {
+        MediaType type = getMediaType(profilePicture);
+        return type.equals(MediaType.IMAGE_PNG) || type.equals(MediaType.IMAGE_GIF) ? "png" : "jpg";
+    }
+
+    private void scheduleThumbnails(String blobId, String format) {
+        if (!pending.add(blobId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateThumbnails(blobId, format);
+                } catch (Exception e) {
+                    System.err.println("⚠️ Thumbnail generation failed for blob " + blobId + ": " + e.getMessage());
+                } finally {
+                    pending.remove(blobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full - the next request for a thumbnail schedules it again
+            pending.remove(blobId);
+        }
+    }
+
+    private void generateThumbnails(String blobId, String format) throws IOException {
+        BufferedImage source;
+        try (InputStream content = blobStore.open(blobId)) {
+            source = readImage(content);
+        }
+        if (source == null) {
+            return; // Not a format ImageIO can decode - the original is served instead
+        }
+
+        // Center square crop, then downscale (avatars are shown square/round)
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage square = source.getSubimage(
+                (source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+        boolean alpha = format.equals("png") && source.getColorModel().hasAlpha();
+
+        // Largest first, each size scaled from the previous one (halving keeps quality, costs little)
+        List<String> stored = new ArrayList<>();
+        try {
+            BufferedImage current = square;
+            for (int i = THUMBNAIL_SIZES.length - 1; i >= 0; i--) {
+                int size = THUMBNAIL_SIZES[i];
+                current = scale(current, Math.min(size, current.getWidth()), alpha);
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                if (!ImageIO.write(current, format, encoded)) {
+                    throw new IOException("No ImageIO writer for " + format);
+                }
+                String key = thumbnailKey(blobId, size, format);
+                storage.put(key, new ByteArrayInputStream(encoded.toByteArray()), encoded.size());
+                stored.add(key);
+            }
+        } finally {
+            // Recorded after storing: a blob collected in the meantime has no row left to record
+            // on, and its thumbnails would never be deleted otherwise
+            if (!stored.isEmpty() && !blobStore.addDerivedKeys(blobId, stored)) {
+                for (String key : stored) {
+                    storage.delete(key);
+                }
+            }
+        }
+    }
+
+    // Decodes the image after checking its dimensions from the header
+    private BufferedImage readImage(InputStream content) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new IOException("Image too large to thumbnail: "
+                            + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Repeated halving down to twice the target, then one bilinear step
+    private BufferedImage scale(BufferedImage image, int size, boolean alpha) {
+        BufferedImage current = image;
+        int width = current.getWidth();
+        while (width / 2 >= size * 2) {
+            width /= 2;
+            current = resize(current, width, alpha);
+        }
+        return width == size && current != image ? current : resize(current, size, alpha);
+    }
+
+    private BufferedImage resize(BufferedImage image, int size, boolean alpha) {
+        BufferedImage resized = new BufferedImage(size, size, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, size, size, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private static String thumbnailKey(String blobId, int size, String format) {
+        return "thumbnails/" + blobId.substring(0, 2) + "/" + blobId + "/" + size + "." + format;
+    }
+
+
+    private ResponseEntity<?> notFound(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+}
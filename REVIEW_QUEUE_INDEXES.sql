@@ -0,0 +1,39 @@
+-- ============================================
+-- INDEXES FOR THE TEACHER REVIEW QUEUE
+-- ============================================
+-- Database: elearn_teacher
+-- Backs GET /teacher/review-queue (SubmissionRepository.findReviewQueuePage / countReviewQueue):
+--   course(teacher_id) -> assignment(course_id) -> submission(assignment_id, submitted_at, id)
+--   -> anti-join on grade(submission_id)
+-- Run once. The submission index idx_submission_assignment_submitted (assignment_id,
+-- submitted_at, id) is declared on the Submission entity and created by ddl-auto=update,
+-- so it is not in this script - a duplicate CREATE would fail and stop the statements below.
+-- ============================================
+
+USE elearn_teacher;
+
+-- Teacher -> their courses
+-- (skip if SHOW INDEX FROM course already lists an index starting with teacher_id)
+CREATE INDEX idx_course_teacher ON course (teacher_id);
+
+-- Course -> its assignments
+-- (skip if SHOW INDEX FROM assignment already lists an index starting with course_id)
+CREATE INDEX idx_assignment_course ON assignment (course_id);
+
+-- "Has this submission been graded?" - answered by uk_grade_submission on grade(submission_id).
+-- That key is required by grading itself and lives in GRADE_UNIQUE_INDEX.sql - run that first.
+
+-- Verify the plan uses the indexes (replace 1 with a teacher id).
+-- Expect "Using filesort" on the submission step: idx_submission_assignment_submitted keeps
+-- each assignment's submissions in order, but not the merge across all of a teacher's
+-- assignments. The sort is bounded by that teacher's ungraded submissions after the keyset
+-- cursor and keeps only LIMIT rows; avoiding it would need teacher_id on submission.
+EXPLAIN
+SELECT s.id, s.submitted_at
+FROM submission s
+JOIN assignment a ON a.id = s.assignment_id
+JOIN course c ON c.id = a.course_id
+WHERE c.teacher_id = 1
+  AND NOT EXISTS (SELECT 1 FROM grade g WHERE g.submission_id = s.id)
+ORDER BY s.submitted_at, s.id
+LIMIT 21;
@@ -0,0 +1,23 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.time.LocalDateTime;
+
+// ✅ One ungraded submission in a teacher's review queue (/teacher/review-queue).
+// Built directly by SubmissionRepository.findReviewQueuePage - no entities, no per-row lookups.
+public record ReviewQueueItem(Long submissionId,
+                             Long assignmentId,
+                             String assignmentTitle,
+                             Long courseId,
+                             String className,
+                             Long studentId,
+                             String studentName,
+                             LocalDateTime submittedAt) {
+
+    // Used by the JPQL constructor expression - falls back to the username when name is empty
+    public ReviewQueueItem(Long submissionId, Long assignmentId, String assignmentTitle, Long courseId,
+                           String className, Long studentId, String name, String username,
+                           LocalDateTime submittedAt) {
+        this(submissionId, assignmentId, assignmentTitle, courseId, className, studentId,
+                name != null && !name.trim().isEmpty() ? name : username, submittedAt);
+    }
+}
@@ -0,0 +1,13 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// ✅ One page of the review queue, oldest submission first.
+// total counts every ungraded submission of the teacher (not just this page);
+// nextCursor is passed back as afterSubmittedAt/afterId (null on the last page).
+public record ReviewQueuePage(List<ReviewQueueItem> items, long total, Cursor nextCursor) {
+
+    public record Cursor(LocalDateTime submittedAt, Long id) {
+    }
+}
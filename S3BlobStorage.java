@@ -0,0 +1,307 @@
+package com.elearnhub.teacher_service.storage;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// ✅ Blob storage in an S3-compatible object store, spoken to directly over HTTP with
+// Signature Version 4 (java.net.http, no SDK). Works against AWS S3 and local stand-ins such as
+// MinIO via the endpoint override:
+//   file.storage.type=s3
+//   file.storage.s3.endpoint=http://localhost:9000   (default https://s3.<region>.amazonaws.com)
+//   file.storage.s3.bucket=elearnhub-files
+//   file.storage.s3.region=us-east-1
+//   file.storage.s3.access-key=... / file.storage.s3.secret-key=...
+//   file.storage.s3.path-style=true                  (false: <bucket>.<endpoint host>/<key>)
+// Requests use path-style URLs (<endpoint>/<bucket>/<key>) by default, which every S3 clone
+// understands. Bodies are streamed in both directions and never buffered; uploads are sent as
+// UNSIGNED-PAYLOAD so they do not need a hashing pass before they start.
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+public class S3BlobStorage implements BlobStorage {
+
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    // SHA-256 of an empty body (GET, HEAD, DELETE)
+    private static final String EMPTY_PAYLOAD_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter DATE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd");
+    // S3 caps presigned URLs at 7 days
+    private static final Duration MAX_PRESIGN = Duration.ofDays(7);
+
+    @Value("${file.storage.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${file.storage.s3.bucket}")
+    private String bucket;
+
+    @Value("${file.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${file.storage.s3.access-key}")
+    private String accessKey;
+
+    @Value("${file.storage.s3.secret-key}")
+    private String secretKey;
+
+    @Value("${file.storage.s3.path-style:true}")
+    private boolean pathStyle;
+
+    // Signing time; fixed in S3BlobStorageTest to check the published SigV4 examples
+    private Clock clock = Clock.systemUTC();
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    void init() {
+        if (endpoint == null || endpoint.isBlank()) {
+            endpoint = "https://s3." + region + ".amazonaws.com";
+        }
+        endpoint = endpoint.replaceAll("/+$", "");
+        if (!pathStyle) {
+            endpoint = endpoint.replaceFirst("://", "://" + bucket + ".");
+        }
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1) // No h2c upgrade attempts against MinIO & co.
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @Override
+    public Optional<ObjectInfo> stat(String key) throws IOException {
+        HttpResponse<Void> response = send(signed("HEAD", key).method("HEAD", HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        expectSuccess(response, "HEAD", key);
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        long lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                .orElse(0L);
+        return Optional.of(new ObjectInfo(size, lastModified));
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size) throws IOException {
+        // fromPublisher with a length -> Content-Length instead of chunked encoding (S3 requires it)
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> content), size);
+        HttpResponse<String> response = send(signed("PUT", key).PUT(body), HttpResponse.BodyHandlers.ofString());
+        expectSuccess(response, "PUT", key);
+    }
+
+    @Override
+    public void store(String key, Path stagedFile) throws IOException {
+        HttpResponse<String> response = send(
+                signed("PUT", key).PUT(HttpRequest.BodyPublishers.ofFile(stagedFile)),
+                HttpResponse.BodyHandlers.ofString());
+        expectSuccess(response, "PUT", key);
+        Files.deleteIfExists(stagedFile);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return getStream(signed("GET", key).GET(), key);
+    }
+
+    @Override
+    public InputStream get(String key, long start, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        return getStream(signed("GET", key, Map.of("range", "bytes=" + start + "-" + (start + length - 1)))
+                .GET(), key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<String> response = send(signed("DELETE", key).DELETE(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 404) {
+            expectSuccess(response, "DELETE", key);
+        }
+    }
+
+    // ✅ Query-string signed GET (the same SigV4 scheme, credentials in the URL)
+    @Override
+    public Optional<URI> presignedGetUrl(String key, Duration validFor, String contentType, String contentDisposition) {
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(ZoneOffset.UTC));
+        long expires = Math.min(validFor.getSeconds(), MAX_PRESIGN.getSeconds());
+
+        Map<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", "AWS4-HMAC-SHA256");
+        query.put("X-Amz-Credential", accessKey + "/" + scope(now));
+        query.put("X-Amz-Date", AMZ_DATE.format(now));
+        query.put("X-Amz-Expires", Long.toString(expires));
+        query.put("X-Amz-SignedHeaders", "host");
+        if (contentType != null) {
+            query.put("response-content-type", contentType);
+        }
+        if (contentDisposition != null) {
+            query.put("response-content-disposition", contentDisposition);
+        }
+
+        URI uri = objectUri(key, "");
+        String canonicalQuery = canonicalQuery(query);
+        String canonicalRequest = "GET\n" + uri.getRawPath() + "\n" + canonicalQuery + "\n"
+                + "host:" + hostHeader(uri) + "\n\nhost\n" + UNSIGNED_PAYLOAD;
+        String signature = sign(now, canonicalRequest);
+        return Optional.of(objectUri(key, canonicalQuery + "&X-Amz-Signature=" + signature));
+    }
+
+    // Builds a request for <endpoint>/<bucket>/<key> carrying the SigV4 Authorization header
+    private HttpRequest.Builder signed(String method, String key) {
+        return signed(method, key, Map.of());
+    }
+
+    // headers: further headers to send and sign (lower-case names), e.g. range
+    HttpRequest.Builder signed(String method, String key, Map<String, String> headers) {
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(ZoneOffset.UTC));
+        URI uri = objectUri(key, "");
+        // Only uploads have a body; the others sign the empty payload
+        String payloadHash = "PUT".equals(method) ? UNSIGNED_PAYLOAD : EMPTY_PAYLOAD_SHA256;
+
+        // Canonical headers must be sorted by name; HttpClient sets Host itself
+        Map<String, String> signedHeaders = new TreeMap<>(headers);
+        signedHeaders.put("host", hostHeader(uri));
+        signedHeaders.put("x-amz-content-sha256", payloadHash);
+        signedHeaders.put("x-amz-date", AMZ_DATE.format(now));
+        String signedHeaderNames = String.join(";", signedHeaders.keySet());
+        String canonicalRequest = method + "\n" + uri.getRawPath() + "\n\n"
+                + signedHeaders.entrySet().stream()
+                        .map(header -> header.getKey() + ":" + header.getValue() + "\n")
+                        .collect(Collectors.joining())
+                + "\n" + signedHeaderNames + "\n" + payloadHash;
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(10));
+        signedHeaders.forEach((name, value) -> {
+            if (!"host".equals(name)) {
+                request.header(name, value);
+            }
+        });
+        return request.header("Authorization", "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope(now)
+                + ", SignedHeaders=" + signedHeaderNames + ", Signature=" + sign(now, canonicalRequest));
+    }
+
+    private String sign(ZonedDateTime now, String canonicalRequest) {
+        String stringToSign = "AWS4-HMAC-SHA256\n" + AMZ_DATE.format(now) + "\n" + scope(now) + "\n"
+                + HexFormat.of().formatHex(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), DATE_STAMP.format(now));
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, "s3");
+        signingKey = hmac(signingKey, "aws4_request");
+        return HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+    }
+
+    private String scope(ZonedDateTime now) {
+        return DATE_STAMP.format(now) + "/" + region + "/s3/aws4_request";
+    }
+
+    private URI objectUri(String key, String rawQuery) {
+        String path = (pathStyle ? "/" + uriEncode(bucket, true) : "") + "/" + uriEncode(key, false);
+        return URI.create(endpoint + path + (rawQuery.isEmpty() ? "" : "?" + rawQuery));
+    }
+
+    // Host as sent on the wire: the port only when it is not the scheme's default
+    private String hostHeader(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+                || (port == 80 && "http".equals(uri.getScheme()))
+                || (port == 443 && "https".equals(uri.getScheme()));
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    // Parameters sorted by name (TreeMap), names and values URI-encoded
+    private String canonicalQuery(Map<String, String> query) {
+        return new TreeMap<>(query).entrySet().stream()
+                .map(entry -> uriEncode(entry.getKey(), true) + "=" + uriEncode(entry.getValue(), true))
+                .collect(Collectors.joining("&"));
+    }
+
+    // RFC 3986 encoding as SigV4 defines it: unreserved characters stay, everything else is %XX;
+    // '/' stays in object keys
+    private static String uriEncode(String value, boolean encodeSlash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private InputStream getStream(HttpRequest.Builder request, String key) throws IOException {
+        HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() / 100 != 2) {
+            try (InputStream body = response.body()) {
+                throw new IOException("S3 GET " + key + " failed with status " + response.statusCode()
+                        + ": " + new String(body.readNBytes(1024), StandardCharsets.UTF_8));
+            }
+        }
+        return response.body();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest.Builder request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while talking to S3", e);
+        }
+    }
+
+    private void expectSuccess(HttpResponse<?> response, String method, String key) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            Object body = response.body();
+            throw new IOException("S3 " + method + " " + key + " failed with status " + response.statusCode()
+                    + (body instanceof String text && !text.isEmpty() ? ": " + text : ""));
+        }
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,25 +1,22 @@
 package com.elearnhub.teacher_service.Controller;
 
+import com.elearnhub.teacher_service.service.ProfilePictureService;
 import com.elearnhub.teacher_service.service.UserService;
 import com.elearnhub.teacher_service.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/student")
@@ -28,9 +25,8 @@ public class StudentController {
     @Autowired
     private UserService userService;
 
-    // Profile picture upload directory
-    @Value("${file.profile-upload-dir:uploads/profiles}")
-    private String profileUploadDir;
+    @Autowired
+    private ProfilePictureService profilePictureService;
 
     // ✅ Get student profile
     @GetMapping("/profile")
@@ -150,7 +146,7 @@ public class StudentController {
             }
 
             // Validate file size (max 5MB)
-            if (file.getSize() > 5 * 1024 * 1024) {
+            if (file.getSize() > ProfilePictureService.MAX_BYTES) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "File size must be less than 5MB");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
@@ -168,22 +164,20 @@ public class StudentController {
 
             User user = userOptional.get();
 
-            // Save file
-            String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-            Path uploadPath = Paths.get(profileUploadDir);
-            
-            // Create directory if it doesn't exist
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            // ✅ Save file in the blob store - the stored path carries the content hash (ETag)
+            String previousPicture = user.getProfilePicture();
+            String profilePicturePath = profilePictureService.store(file);
+            User updatedUser;
+            try {
+                user.setProfilePicture(profilePicturePath);
+                updatedUser = userService.updateUser(user.getId(), user);
+            } catch (RuntimeException e) {
+                profilePictureService.release(profilePicturePath);
+                throw e;
+            }
+            if (previousPicture != null && !previousPicture.isEmpty()) {
+                profilePictureService.release(previousPicture);
             }
-            
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Update user's profile picture path
-            String profilePicturePath = "/profiles/" + fileName;
-            user.setProfilePicture(profilePicturePath);
-            User updatedUser = userService.updateUser(user.getId(), user);
 
             // Return updated profile
             Map<String, Object> profile = new HashMap<>();
@@ -206,9 +200,15 @@ public class StudentController {
     }
 
     // ✅ Get profile picture (serve file)
+    // GET /student/profile/picture[?size=32|64|256] - with size, the matching square thumbnail.
+    // Answers If-None-Match with a 304 from the stored content hash before the image is opened
     @GetMapping("/profile/picture")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<?> getProfilePicture(Authentication authentication) {
+    public ResponseEntity<?> getProfilePicture(
+            @RequestParam(required = false) Integer size,
+            Authentication authentication,
+            @RequestHeader HttpHeaders requestHeaders,
+            WebRequest webRequest) {
         try {
             String username = authentication.getName();
             Optional<User> userOptional = userService.findByUsername(username);
@@ -219,35 +219,7 @@ public class StudentController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
 
-            User user = userOptional.get();
-            if (user.getProfilePicture() == null || user.getProfilePicture().isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("message", "Profile picture not found");
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
-            }
-
-            // Remove leading slash if present and construct file path
-            String picturePath = user.getProfilePicture().startsWith("/") 
-                ? user.getProfilePicture().substring(1) 
-                : user.getProfilePicture();
-            
-            Path filePath = Paths.get(profileUploadDir).resolve(picturePath.replace("/profiles/", ""));
-            
-            if (!Files.exists(filePath)) {
-                Map<String, String> error = new HashMap<>();
-                error.put("message", "Profile picture file not found");
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
-            }
-
-            byte[] fileBytes = Files.readAllBytes(filePath);
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "image/jpeg"; // Default
-            }
-
-            return ResponseEntity.ok()
-                    .header("Content-Type", contentType)
-                    .body(fileBytes);
+            return profilePictureService.serve(userOptional.get().getProfilePicture(), size, requestHeaders, webRequest);
         } catch (IOException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Failed to read file: " + e.getMessage());
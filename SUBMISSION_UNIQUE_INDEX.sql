@@ -0,0 +1,44 @@
+-- ============================================
+-- ONE SUBMISSION PER STUDENT AND ASSIGNMENT
+-- ============================================
+-- Database: elearn_teacher
+-- Resubmissions lock the student's row (AssignmentService.recordSubmissionFile), but a first
+-- submission has no row to lock yet: this key is what stops two concurrent first submissions
+-- from inserting two rows. The loser retries once and replaces the winner's file.
+-- Required; run once before deploying. ddl-auto=update does not add this key.
+-- ============================================
+
+USE elearn_teacher;
+
+-- Step 1: Find students with more than one submission for an assignment
+SELECT assignment_id, student_id, COUNT(*) AS submissions, GROUP_CONCAT(id ORDER BY id) AS ids
+FROM submission
+GROUP BY assignment_id, student_id
+HAVING COUNT(*) > 1;
+
+-- Step 2: Keep the newest submission (highest id) of each student, with its grade.
+-- First drop the file_blob references of the rows that go, so blob GC can collect their files
+UPDATE file_blob b
+JOIN (SELECT SUBSTRING_INDEX(SUBSTRING(s.file_path, 8), '/', 1) AS blob_id, COUNT(*) AS refs
+      FROM submission s
+      JOIN submission newer ON newer.assignment_id = s.assignment_id
+          AND newer.student_id = s.student_id AND newer.id > s.id
+      WHERE s.file_path LIKE '/blobs/%'
+      GROUP BY blob_id) removed ON removed.blob_id = b.id
+SET b.ref_count = GREATEST(b.ref_count - removed.refs, 0), b.updated_at = NOW();
+
+DELETE g FROM grade g
+JOIN submission s ON s.id = g.submission_id
+JOIN submission newer ON newer.assignment_id = s.assignment_id
+    AND newer.student_id = s.student_id AND newer.id > s.id;
+
+DELETE s FROM submission s
+JOIN submission newer ON newer.assignment_id = s.assignment_id
+    AND newer.student_id = s.student_id AND newer.id > s.id;
+
+-- Step 3: Add the unique key
+-- (skip if SHOW INDEX FROM submission already lists a unique key on assignment_id, student_id)
+CREATE UNIQUE INDEX uk_submission_assignment_student ON submission (assignment_id, student_id);
+
+-- Verify
+-- SHOW INDEX FROM submission WHERE Key_name = 'uk_submission_assignment_student';
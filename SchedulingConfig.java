@@ -0,0 +1,10 @@
+package com.elearnhub.teacher_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// ✅ Enables @Scheduled background jobs (e.g. BlobStore garbage collection)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
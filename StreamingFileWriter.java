@@ -0,0 +1,99 @@
+package com.elearnhub.teacher_service.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// ✅ Writes an upload stream to disk in one pass: request body -> channel -> file.
+// SHA-256 and size are computed while writing, the size limit is enforced as bytes arrive,
+// and the data is written exactly once ("<target>.part", renamed into place when complete).
+public final class StreamingFileWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private StreamingFileWriter() {
+    }
+
+    public record WrittenFile(Path path, long size, String sha256) {
+    }
+
+    public static WrittenFile write(InputStream in, Path target, long maxBytes) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        MessageDigest digest = newSha256();
+        long size = 0;
+
+        ReadableByteChannel source = Channels.newChannel(in);
+        try (FileChannel out = FileChannel.open(partial,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new PayloadTooLargeException(maxBytes);
+                }
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+            out.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        // Same directory -> a rename, not a second copy
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new WrittenFile(target, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    // SHA-256 of a file that is already on disk (hex, same format as WrittenFile.sha256)
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JRE ships SHA-256
+        }
+    }
+
+    // Mapped to 413 Payload Too Large
+    public static class PayloadTooLargeException extends RuntimeException {
+        private final long maxBytes;
+
+        public PayloadTooLargeException(long maxBytes) {
+            super("File exceeds the maximum size of " + maxBytes + " bytes");
+            this.maxBytes = maxBytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+    }
+}
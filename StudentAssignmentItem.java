@@ -0,0 +1,30 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.time.LocalDateTime;
+
+// ✅ One row of the student assignment feed (/student/assignments).
+// Built directly by AssignmentRepository.findStudentFeed - assignment, course name,
+// the student's submission and its grade come from a single query.
+public record StudentAssignmentItem(Long id,
+                                    String title,
+                                    String description,
+                                    LocalDateTime dueDate,
+                                    Double maxGrade,
+                                    Long courseId,
+                                    String className,
+                                    String status, // pending | submitted | graded
+                                    Long submissionId,
+                                    LocalDateTime submittedAt,
+                                    Double grade,
+                                    String feedback) {
+
+    // Used by the JPQL constructor expression - status is derived from the joined rows
+    public StudentAssignmentItem(Long id, String title, String description, LocalDateTime dueDate,
+                                 Double maxGrade, Long courseId, String className,
+                                 Long submissionId, LocalDateTime submittedAt,
+                                 Double grade, String feedback) {
+        this(id, title, description, dueDate, maxGrade, courseId, className,
+                submissionId == null ? "pending" : grade == null ? "submitted" : "graded",
+                submissionId, submittedAt, grade, feedback);
+    }
+}
@@ -1,13 +1,16 @@
 package com.elearnhub.teacher_service.Controller;
 
-import com.elearnhub.teacher_service.entity.User;
+import com.elearnhub.teacher_service.dto.StudentAssignmentItem;
+import com.elearnhub.teacher_service.dto.UserSummary;
 import com.elearnhub.teacher_service.entity.Course;
+import com.elearnhub.teacher_service.security.AuthenticatedUser;
+import com.elearnhub.teacher_service.security.CurrentUser;
+import com.elearnhub.teacher_service.service.AssignmentService;
 import com.elearnhub.teacher_service.service.UserService;
 import com.elearnhub.teacher_service.service.CourseService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,20 +29,27 @@ public class StudentController {
     @Autowired
     private CourseService courseService;
 
+    @Autowired
+    private AssignmentService assignmentService;
+
     // ✅ Get enrolled classes for authenticated student
     @GetMapping("/classes")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<?> getMyClasses(Authentication authentication) {
+    public ResponseEntity<?> getMyClasses(@CurrentUser AuthenticatedUser student) {
         try {
-            // Get student from authentication
-            String username = authentication.getName();
-            User student = userService.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Student not found"));
-
             // Get courses where this student is enrolled
-            // IMPORTANT: CourseService must have getCoursesByStudentId() method
             List<Course> enrolledCourses = courseService.getCoursesByStudentId(student.getId());
 
+            // Resolve all teachers in one batch (cached, single IN query for misses)
+            Map<Long, UserSummary> teachers = userService.getUserSummaries(enrolledCourses.stream()
+                    .map(Course::getTeacherId)
+                    .collect(Collectors.toSet()));
+
+            // Student counts for all courses in one GROUP BY query
+            Map<Long, Long> enrollmentCounts = courseService.getEnrollmentCounts(enrolledCourses.stream()
+                    .map(Course::getId)
+                    .collect(Collectors.toSet()));
+
             // Convert to response format
             List<Map<String, Object>> response = enrolledCourses.stream()
                     .map(course -> {
@@ -57,30 +67,15 @@ public class StudentController {
                         classData.put("subject", course.getName()); // For frontend compatibility
                         
                         // Get teacher information
-                        if (course.getTeacherId() != null) {
-                            try {
-                                User teacher = userService.getUserById(course.getTeacherId())
-                                        .orElse(null);
-                                if (teacher != null) {
-                                    // Use teacher's name if available, otherwise username
-                                    String teacherName = teacher.getName() != null && !teacher.getName().trim().isEmpty()
-                                            ? teacher.getName()
-                                            : teacher.getUsername();
-                                    classData.put("teacherName", teacherName);
-                                    classData.put("teacherId", teacher.getId());
-                                }
-                            } catch (Exception e) {
-                                // If teacher lookup fails, skip teacher info
-                                System.err.println("Error fetching teacher for course " + course.getId() + ": " + e.getMessage());
-                            }
+                        UserSummary teacher = teachers.get(course.getTeacherId());
+                        if (teacher != null) {
+                            // Use teacher's name if available, otherwise username
+                            classData.put("teacherName", teacher.displayName());
+                            classData.put("teacherId", teacher.id());
                         }
                         
                         // Add student count
-                        if (course.getStudents() != null) {
-                            classData.put("students", course.getStudents().size());
-                        } else {
-                            classData.put("students", 0);
-                        }
+                        classData.put("students", enrollmentCounts.getOrDefault(course.getId(), 0L));
                         
                         return classData;
                     })
@@ -93,5 +88,19 @@ public class StudentController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
-}
 
+    // ✅ Assignments of all enrolled classes with status (pending | submitted | graded),
+    // grade and feedback - one query, sorted by due date in SQL
+    @GetMapping("/assignments")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<?> getMyAssignments(@CurrentUser AuthenticatedUser student) {
+        try {
+            List<StudentAssignmentItem> assignments = assignmentService.getStudentAssignmentFeed(student.getId());
+            return ResponseEntity.ok(assignments);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to fetch assignments: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.util.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Function;
+
+// ✅ Read-through cache: studentId -> ids of the courses the student is enrolled in.
+// Student pages (classes, lessons, assignments) ask for this on every click; with the
+// cache they only hit the database once per student until an enrollment changes on this node,
+// or ttl-seconds pass - the bound on how long a change made on another node goes unseen.
+// Least recently used students are evicted once max-size is reached.
+@Component
+public class StudentCourseCache {
+
+    private final BoundedTtlCache<Long, Set<Long>> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public StudentCourseCache(@Value("${enrollment.student-cache.max-size:20000}") int maxSize,
+                              @Value("${enrollment.student-cache.ttl-seconds:30}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+        this.hits = Counter.builder("enrollment.student-courses.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("enrollment.student-courses.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("enrollment.student-courses.cache.size", cache, BoundedTtlCache::size)
+                .register(meterRegistry);
+    }
+
+    // Returns the cached course ids, or loads them (outside the lock) and caches the result
+    public Set<Long> get(Long studentId, Function<Long, Set<Long>> loader) {
+        Set<Long> courseIds = cache.getIfPresent(studentId);
+        if (courseIds != null) {
+            hits.increment();
+            return courseIds;
+        }
+        misses.increment();
+        return cache.get(studentId, id -> Set.copyOf(loader.apply(id)));
+    }
+
+    // Call after any enrollment change of the student is committed
+    public void invalidate(Long studentId) {
+        cache.invalidate(studentId);
+    }
+
+    public void invalidateAll(Collection<Long> studentIds) {
+        cache.invalidateAll(studentIds);
+    }
+}
@@ -5,7 +5,13 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "submission")
+@Table(name = "submission", uniqueConstraints = {
+        // One submission per student and assignment (SUBMISSION_UNIQUE_INDEX.sql)
+        @UniqueConstraint(name = "uk_submission_assignment_student", columnNames = {"assignment_id", "student_id"})
+}, indexes = {
+        // Review queue / per-assignment listings: seek by assignment, already ordered by submittedAt
+        @Index(name = "idx_submission_assignment_submitted", columnList = "assignment_id, submitted_at, id")
+})
 public class Submission {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
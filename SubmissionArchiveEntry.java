@@ -0,0 +1,11 @@
+package com.elearnhub.teacher_service.dto;
+
+// ✅ What the submissions archive needs per submission (no entities, no password hashes)
+public record SubmissionArchiveEntry(Long submissionId, Long studentId, String studentName,
+                                     String studentUsername, String content, String filePath) {
+
+    // Use name if available, otherwise username
+    public String displayName() {
+        return studentName != null && !studentName.trim().isEmpty() ? studentName : studentUsername;
+    }
+}
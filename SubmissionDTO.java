@@ -31,6 +31,13 @@ public class SubmissionDTO {
         this.feedback = feedback;
     }
 
+    // ✅ Used by SubmissionRepository.findWithGradesByAssignmentId - submission and grade come
+    // from one query; studentName is filled in afterwards from a bulk user lookup
+    public SubmissionDTO(Long id, Long assignmentId, Long studentId, String content, String filePath,
+                         LocalDateTime submittedAt, Double grade, String feedback) {
+        this(id, assignmentId, studentId, null, content, filePath, submittedAt, grade, feedback);
+    }
+
     // Getters and setters
     public Long getId() {
         return id;
@@ -0,0 +1,194 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.dto.SubmissionArchiveEntry;
+import com.elearnhub.teacher_service.dto.SubmissionDTO;
+import com.elearnhub.teacher_service.repository.SubmissionRepository;
+import com.elearnhub.teacher_service.storage.BlobStorage;
+import com.elearnhub.teacher_service.util.FileRangeResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// ✅ Streaming submission uploads.
+// The request body goes straight into the blob store (no multipart temp file, no second copy);
+// an unchanged resubmission just takes another reference on the same blob.
+// Deliberately NOT @Transactional: a slow 20 MB upload must not hold a
+// database connection - the submission row is written afterwards in a short transaction.
+@Service
+public class SubmissionFileService {
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Value("${file.submission-upload-dir:uploads/submissions}")
+    private String submissionUploadDir;
+
+    @Value("${file.submission-max-bytes:52428800}")
+    private long submissionMaxBytes;
+
+    public long getMaxBytes() {
+        return submissionMaxBytes;
+    }
+
+    // Attaches the file to the student's submission; its text answer (if any) is left as it is
+    public SubmissionDTO upload(Long assignmentId, Long studentId, String originalFileName,
+                                InputStream body) throws IOException {
+        BlobStore.StoredBlob blob = blobStore.put(body, submissionMaxBytes);
+        String filePath = BlobStore.toFilePath(blob.id(), sanitize(originalFileName));
+        AssignmentService.RecordedSubmission recorded;
+        try {
+            recorded = record(assignmentId, studentId, filePath);
+        } catch (RuntimeException e) {
+            blobStore.release(blob.id()); // Don't leave unreferenced blobs behind
+            throw e;
+        }
+
+        // A resubmission replaces the previous file (a previous blob is released on commit)
+        String replaced = recorded.replacedFilePath();
+        if (replaced != null && BlobStore.blobIdOf(replaced) == null) {
+            Files.deleteIfExists(resolveLegacyFile(replaced));
+        }
+        return recorded.submission();
+    }
+
+    // A first submission that raced with another one of the same student loses on the unique
+    // key; by then the other row exists, so one retry replaces it like any resubmission
+    private AssignmentService.RecordedSubmission record(Long assignmentId, Long studentId, String filePath) {
+        try {
+            return assignmentService.recordSubmissionFile(assignmentId, studentId, filePath, null);
+        } catch (DataIntegrityViolationException e) {
+            return assignmentService.recordSubmissionFile(assignmentId, studentId, filePath, null);
+        }
+    }
+
+    // Legacy "/submissions/<name>" paths are files in the upload directory on this node
+    // ("/blobs/<sha256>/<name>" ones live in BlobStore)
+    public Path resolveLegacyFile(String filePath) {
+        return Paths.get(submissionUploadDir).resolve(Paths.get(filePath).getFileName());
+    }
+
+    // ✅ Writes all submissions of an assignment as a ZIP straight to the output stream.
+    // One folder per student ("Jane Doe (jdoe)/essay.pdf", text answers as submission.txt).
+    // Nothing is buffered beyond the deflater window: files are streamed from storage one after
+    // another, and no archive is ever written to disk.
+    public void writeArchive(Long assignmentId, OutputStream out) throws IOException {
+        List<SubmissionArchiveEntry> entries = submissionRepository.findArchiveEntriesByAssignmentId(assignmentId);
+        List<String> missing = new ArrayList<>();
+        Set<String> entryNames = new HashSet<>(); // ZipOutputStream rejects duplicate entries
+
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        zip.setLevel(Deflater.BEST_SPEED); // Submissions are mostly already-compressed PDFs/DOCX
+
+        for (SubmissionArchiveEntry entry : entries) {
+            String folder = archiveFolderName(entry) + "/";
+            if (entry.content() != null && !entry.content().isBlank()) {
+                zip.putNextEntry(new ZipEntry(uniqueEntryName(folder + "submission.txt", entryNames)));
+                zip.write(entry.content().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            if (entry.filePath() == null) {
+                continue;
+            }
+
+            // An uploaded "submission.txt", or a second submission of the same student, gets " (2)"
+            String fileName = uniqueEntryName(folder + storedFileName(entry.filePath()), entryNames);
+            String blobId = BlobStore.blobIdOf(entry.filePath());
+            if (blobId != null) {
+                Optional<BlobStorage.ObjectInfo> info = blobStore.stat(blobId);
+                if (info.isEmpty()) {
+                    missing.add(fileName);
+                    continue;
+                }
+                ZipEntry zipEntry = new ZipEntry(fileName);
+                zipEntry.setLastModifiedTime(FileTime.fromMillis(info.get().lastModified()));
+                zip.putNextEntry(zipEntry);
+                blobStore.transferTo(blobId, info.get().size(), zip);
+                zip.closeEntry();
+                continue;
+            }
+
+            Path file = resolveLegacyFile(entry.filePath());
+            if (!Files.isRegularFile(file)) {
+                missing.add(fileName);
+                continue;
+            }
+            ZipEntry zipEntry = new ZipEntry(fileName);
+            zipEntry.setLastModifiedTime(Files.getLastModifiedTime(file));
+            zip.putNextEntry(zipEntry);
+            FileRangeResponse.transfer(file, 0, Files.size(file), zip);
+            zip.closeEntry();
+        }
+
+        if (!missing.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("missing-files.txt"));
+            zip.write(String.join("\n", missing).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish(); // The servlet container owns (and closes) the response stream
+    }
+
+    // name, or "name (2).ext", "name (3).ext", ... if already used in this archive
+    private String uniqueEntryName(String name, Set<String> used) {
+        if (used.add(name)) {
+            return name;
+        }
+        int slash = name.lastIndexOf('/');
+        int dot = name.lastIndexOf('.');
+        String base = dot > slash ? name.substring(0, dot) : name;
+        String extension = dot > slash ? name.substring(dot) : "";
+        for (int n = 2; ; n++) {
+            String candidate = base + " (" + n + ")" + extension;
+            if (used.add(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    // "Jane Doe (jdoe)" with characters that are unsafe in archive paths replaced
+    private String archiveFolderName(SubmissionArchiveEntry entry) {
+        String name = entry.displayName() + " (" + entry.studentUsername() + ")";
+        return name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_");
+    }
+
+    // File name as uploaded: blob paths end in it, legacy paths carry a "<uuid>_" prefix
+    private String storedFileName(String filePath) {
+        String fileName = filePath.substring(filePath.lastIndexOf('/') + 1);
+        if (BlobStore.blobIdOf(filePath) != null) {
+            return fileName;
+        }
+        int separator = fileName.indexOf('_');
+        return separator >= 0 ? fileName.substring(separator + 1) : fileName;
+    }
+
+    // Keep only the last path segment and a safe character set
+    private String sanitize(String originalFileName) {
+        String name = originalFileName != null ? originalFileName : "";
+        name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+        name = name.replaceAll("[^A-Za-z0-9._-]", "_");
+        return name.isEmpty() || name.startsWith(".") ? "submission" + name : name;
+    }
+}
@@ -1,16 +1,96 @@
 package com.elearnhub.teacher_service.repository;
 
+import com.elearnhub.teacher_service.dto.ReviewQueueItem;
+import com.elearnhub.teacher_service.dto.SubmissionArchiveEntry;
+import com.elearnhub.teacher_service.dto.SubmissionDTO;
+import com.elearnhub.teacher_service.dto.SubmissionScore;
 import com.elearnhub.teacher_service.entity.Submission;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     List<Submission> findByAssignmentId(Long assignmentId);
     Optional<Submission> findByAssignmentIdAndStudentId(Long assignmentId, Long studentId);
-}
 
+    // ✅ SELECT ... FOR UPDATE: resubmissions of the same student are serialized on the row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Submission s WHERE s.assignmentId = :assignmentId AND s.studentId = :studentId")
+    Optional<Submission> findForUpdate(@Param("assignmentId") Long assignmentId, @Param("studentId") Long studentId);
+
+    // ✅ Submissions of an assignment with grade and feedback in the same query (no per-row grade lookup)
+    @Query("SELECT new com.elearnhub.teacher_service.dto.SubmissionDTO(" +
+           "s.id, s.assignmentId, s.studentId, s.content, s.filePath, s.submittedAt, g.score, g.feedback) " +
+           "FROM Submission s " +
+           "LEFT JOIN Grade g ON g.submissionId = s.id " +
+           "WHERE s.assignmentId = :assignmentId " +
+           "ORDER BY s.submittedAt ASC, s.id ASC")
+    List<SubmissionDTO> findWithGradesByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    // ✅ Every submission of a course with its score (null if ungraded) - one query for a gradebook
+    @Query("SELECT new com.elearnhub.teacher_service.dto.SubmissionScore(s.studentId, s.assignmentId, g.score) " +
+           "FROM Submission s " +
+           "JOIN Assignment a ON a.id = s.assignmentId " +
+           "LEFT JOIN Grade g ON g.submissionId = s.id " +
+           "WHERE a.courseId = :courseId")
+    List<SubmissionScore> findScoresByCourseId(@Param("courseId") Long courseId);
+
+    // ✅ Which of the given submissions belong to the assignment (batch grading validation)
+    @Query("SELECT s.id FROM Submission s WHERE s.assignmentId = :assignmentId AND s.id IN :submissionIds")
+    Set<Long> findIdsByAssignmentIdAndIdIn(@Param("assignmentId") Long assignmentId,
+                                           @Param("submissionIds") Collection<Long> submissionIds);
 
+    // ✅ Submissions of an assignment with the student's name - one query for the ZIP archive
+    @Query("SELECT new com.elearnhub.teacher_service.dto.SubmissionArchiveEntry(" +
+           "s.id, s.studentId, u.name, u.username, s.content, s.filePath) " +
+           "FROM Submission s " +
+           "JOIN User u ON u.id = s.studentId " +
+           "WHERE s.assignmentId = :assignmentId " +
+           "ORDER BY u.username")
+    List<SubmissionArchiveEntry> findArchiveEntriesByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    // ✅ Review queue: the teacher's submissions without a Grade row, oldest first.
+    // Keyset pagination on (submittedAt, id): pass the last row of the previous page (for the
+    // first page a timestamp before any submission and 0) and PageRequest.of(0, size) - never OFFSET.
+    // Walks course(teacher_id) -> assignment(course_id) -> submission(assignment_id, submitted_at, id)
+    // with an anti-join on grade(submission_id); see REVIEW_QUEUE_INDEXES.sql.
+    // Trade-off: the index orders submissions within one assignment only, so the merge across all
+    // of the teacher's assignments is a filesort. The keyset bound is a range on that same index,
+    // so the sort only sees the teacher's submissions after the cursor, and with the LIMIT MySQL
+    // keeps just the top page (priority queue) - cost grows with one teacher's backlog, not with
+    // the table. Removing the sort would need teacher_id denormalized onto submission.
+    @Query("SELECT new com.elearnhub.teacher_service.dto.ReviewQueueItem(" +
+           "s.id, a.id, a.title, c.id, c.name, s.studentId, u.name, u.username, s.submittedAt) " +
+           "FROM Submission s " +
+           "JOIN Assignment a ON a.id = s.assignmentId " +
+           "JOIN Course c ON c.id = a.courseId " +
+           "JOIN User u ON u.id = s.studentId " +
+           "WHERE c.teacherId = :teacherId " +
+           "AND NOT EXISTS (SELECT g.id FROM Grade g WHERE g.submissionId = s.id) " +
+           "AND (s.submittedAt > :afterSubmittedAt OR (s.submittedAt = :afterSubmittedAt AND s.id > :afterId)) " +
+           "ORDER BY s.submittedAt ASC, s.id ASC")
+    List<ReviewQueueItem> findReviewQueuePage(@Param("teacherId") Long teacherId,
+                                              @Param("afterSubmittedAt") LocalDateTime afterSubmittedAt,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    // ✅ Total size of the review queue (same predicate, no keyset) - the "Pending" counter
+    @Query("SELECT COUNT(s) FROM Submission s " +
+           "JOIN Assignment a ON a.id = s.assignmentId " +
+           "JOIN Course c ON c.id = a.courseId " +
+           "WHERE c.teacherId = :teacherId " +
+           "AND s.submittedAt IS NOT NULL " +
+           "AND NOT EXISTS (SELECT g.id FROM Grade g WHERE g.submissionId = s.id)")
+    long countReviewQueue(@Param("teacherId") Long teacherId);
+}
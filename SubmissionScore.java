@@ -0,0 +1,5 @@
+package com.elearnhub.teacher_service.dto;
+
+// ✅ (student, assignment, score) triple for building a gradebook - score is null if not graded yet
+public record SubmissionScore(Long studentId, Long assignmentId, Double score) {
+}
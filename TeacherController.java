@@ -1,25 +1,29 @@
 package com.elearnhub.teacher_service.Controller;
 
+import com.elearnhub.teacher_service.dto.ReviewQueuePage;
+import com.elearnhub.teacher_service.dto.UserSummary;
 import com.elearnhub.teacher_service.entity.User;
+import com.elearnhub.teacher_service.security.AuthenticatedUser;
+import com.elearnhub.teacher_service.security.CurrentUser;
+import com.elearnhub.teacher_service.service.AssignmentService;
+import com.elearnhub.teacher_service.service.ProfilePictureService;
 import com.elearnhub.teacher_service.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/teacher")
@@ -28,20 +32,39 @@ public class TeacherController {
     @Autowired
     private UserService userService;
 
-    // Profile picture upload directory
-    @Value("${file.profile-upload-dir:uploads/profiles}")
-    private String profileUploadDir;
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private ProfilePictureService profilePictureService;
+
+    // ✅ Ungraded submissions across all of the teacher's courses, oldest first
+    // GET /teacher/review-queue?limit=20[&afterSubmittedAt=2026-01-05T10:15:30&afterId=812]
+    // Response: { items: [...], total: 37, nextCursor: { submittedAt, id } | null }
+    @GetMapping("/review-queue")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<?> getReviewQueue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterSubmittedAt,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int limit,
+            @CurrentUser AuthenticatedUser currentUser) {
+        try {
+            ReviewQueuePage page = assignmentService.getReviewQueue(currentUser.getId(), afterSubmittedAt, afterId, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to fetch review queue: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
 
     // ✅ Get teacher profile
     @GetMapping("/profile")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<?> getProfile(Authentication authentication) {
+    public ResponseEntity<?> getProfile(@CurrentUser AuthenticatedUser currentUser) {
         try {
-            // Get username from authentication
-            String username = authentication.getName();
-            
-            // Fetch user details from database
-            Optional<User> userOptional = userService.findByUsername(username);
+            // Fetch user details by primary key (principal already carries the id)
+            Optional<User> userOptional = userService.getUserById(currentUser.getId());
             
             if (userOptional.isEmpty()) {
                 Map<String, String> error = new HashMap<>();
@@ -72,13 +95,10 @@ public class TeacherController {
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> updateProfile(
             @RequestBody Map<String, String> profileUpdate,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            // Get username from authentication
-            String username = authentication.getName();
-            
-            // Fetch current user
-            Optional<User> userOptional = userService.findByUsername(username);
+            // Fetch current user by primary key
+            Optional<User> userOptional = userService.getUserById(currentUser.getId());
             
             if (userOptional.isEmpty()) {
                 Map<String, String> error = new HashMap<>();
@@ -132,7 +152,7 @@ public class TeacherController {
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<?> uploadProfilePicture(
             @RequestPart MultipartFile file,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
             // Validate file
             if (file.isEmpty()) {
@@ -150,15 +170,14 @@ public class TeacherController {
             }
 
             // Validate file size (max 5MB)
-            if (file.getSize() > 5 * 1024 * 1024) {
+            if (file.getSize() > ProfilePictureService.MAX_BYTES) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "File size must be less than 5MB");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
             // Get authenticated teacher
-            String username = authentication.getName();
-            Optional<User> userOptional = userService.findByUsername(username);
+            Optional<User> userOptional = userService.getUserById(currentUser.getId());
             
             if (userOptional.isEmpty()) {
                 Map<String, String> error = new HashMap<>();
@@ -168,22 +187,20 @@ public class TeacherController {
 
             User user = userOptional.get();
 
-            // Save file
-            String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-            Path uploadPath = Paths.get(profileUploadDir);
-            
-            // Create directory if it doesn't exist
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            // ✅ Save file in the blob store - the stored path carries the content hash (ETag)
+            String previousPicture = user.getProfilePicture();
+            String profilePicturePath = profilePictureService.store(file);
+            User updatedUser;
+            try {
+                user.setProfilePicture(profilePicturePath);
+                updatedUser = userService.updateUser(user.getId(), user);
+            } catch (RuntimeException e) {
+                profilePictureService.release(profilePicturePath);
+                throw e;
+            }
+            if (previousPicture != null && !previousPicture.isEmpty()) {
+                profilePictureService.release(previousPicture);
             }
-            
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Update user's profile picture path
-            String profilePicturePath = "/profiles/" + fileName;
-            user.setProfilePicture(profilePicturePath);
-            User updatedUser = userService.updateUser(user.getId(), user);
 
             // Return updated profile
             Map<String, Object> profile = new HashMap<>();
@@ -206,48 +223,26 @@ public class TeacherController {
     }
 
     // ✅ Get profile picture (serve file)
+    // GET /teacher/profile/picture[?size=32|64|256] - with size, the matching square thumbnail.
+    // The ETag is the content hash stored in profilePicture and the user comes from the summary
+    // cache - revalidating the sidebar avatar is a 304 with no query and no file I/O.
     @GetMapping("/profile/picture")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<?> getProfilePicture(Authentication authentication) {
+    public ResponseEntity<?> getProfilePicture(
+            @RequestParam(required = false) Integer size,
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestHeader HttpHeaders requestHeaders,
+            WebRequest webRequest) {
         try {
-            String username = authentication.getName();
-            Optional<User> userOptional = userService.findByUsername(username);
+            UserSummary user = userService.getUserSummaries(List.of(currentUser.getId())).get(currentUser.getId());
             
-            if (userOptional.isEmpty()) {
+            if (user == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "User not found");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
 
-            User user = userOptional.get();
-            if (user.getProfilePicture() == null || user.getProfilePicture().isEmpty()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("message", "Profile picture not found");
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
-            }
-
-            // Remove leading slash if present and construct file path
-            String picturePath = user.getProfilePicture().startsWith("/") 
-                ? user.getProfilePicture().substring(1) 
-                : user.getProfilePicture();
-            
-            Path filePath = Paths.get(profileUploadDir).resolve(picturePath.replace("/profiles/", ""));
-            
-            if (!Files.exists(filePath)) {
-                Map<String, String> error = new HashMap<>();
-                error.put("message", "Profile picture file not found");
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
-            }
-
-            byte[] fileBytes = Files.readAllBytes(filePath);
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "image/jpeg"; // Default
-            }
-
-            return ResponseEntity.ok()
-                    .header("Content-Type", contentType)
-                    .body(fileBytes);
+            return profilePictureService.serve(user.profilePicture(), size, requestHeaders, webRequest);
         } catch (IOException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Failed to read profile picture: " + e.getMessage());
@@ -0,0 +1,41 @@
+package com.elearnhub.teacher_service.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// ✅ Helpers for keeping in-memory structures (indexes, caches, stats) in step with the database
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    // Runs the action once the current transaction commits (never on rollback),
+    // or immediately when there is no transaction
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Runs the action if the current transaction rolls back (used to undo side effects
+    // outside the database, e.g. references taken on stored files); no-op without a transaction
+    public static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- ============================================
+-- UNIQUE USERNAMES
+-- ============================================
+-- Database: elearn_teacher
+-- Signup skips the username query when UsernameBloomFilter says "definitely free", and that
+-- filter only knows this node's signups. This index is what actually keeps usernames unique
+-- across nodes; a violation comes back from POST /auth/register as 409 "Username already exists".
+-- The collation is case- and accent-insensitive, so "Alice" and "alice" are the same username.
+-- Run once; ddl-auto=update does not add unique keys to an existing table.
+-- ============================================
+
+USE elearn_teacher;
+
+-- Step 1: Find duplicates that would make the index fail (resolve them by hand first)
+SELECT LOWER(TRIM(username)) AS normalized, COUNT(*) AS users, GROUP_CONCAT(id) AS ids
+FROM user
+GROUP BY LOWER(TRIM(username))
+HAVING COUNT(*) > 1;
+
+-- Step 2: Strip stray whitespace (new signups are stored trimmed)
+UPDATE user SET username = TRIM(username) WHERE username <> TRIM(username);
+
+-- Step 3: Add the unique index
+-- (skip if SHOW INDEX FROM user already lists a unique key on username)
+CREATE UNIQUE INDEX uk_user_username ON user (username);
+
+-- Verify
+-- SHOW INDEX FROM user WHERE Key_name = 'uk_user_username';
@@ -0,0 +1,148 @@
+package com.elearnhub.teacher_service.Controller;
+
+import com.elearnhub.teacher_service.dto.UserImportReport;
+import com.elearnhub.teacher_service.dto.UserPage;
+import com.elearnhub.teacher_service.dto.UserSummary;
+import com.elearnhub.teacher_service.service.ProfilePictureService;
+import com.elearnhub.teacher_service.service.UserImportService;
+import com.elearnhub.teacher_service.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/users")
+public class UserController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ProfilePictureService profilePictureService;
+
+    // Upper bound on ids per avatar lookup (a roster page, not the whole user table)
+    private static final int MAX_AVATAR_IDS = 500;
+
+    // ✅ Keyset-paginated user listing
+    // GET /users?after=120&role=STUDENT&q=jo&limit=50
+    // Response: { items: [{ id, username, email, role }], nextCursor: 170 | null }
+    // Admin only: the listing pages through every account's email address
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> listUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String role,
+            @RequestParam(name = "q", required = false) String usernamePrefix,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            UserPage page = userService.listUsers(after, role, usernamePrefix, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to fetch users: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Bulk import (term start onboarding)
+    // POST /users/import with the raw file as the body:
+    //   Content-Type: text/csv             -> header row username,password,email,name,role
+    //   Content-Type: application/x-ndjson -> one JSON object per line
+    // The body is streamed, never buffered whole. Response: per-row UserImportReport.
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importUsers(HttpServletRequest request,
+                                         @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+        try {
+            UserImportService.Format format;
+            if (contentType.startsWith("text/csv")) {
+                format = UserImportService.Format.CSV;
+            } else if (contentType.startsWith("application/x-ndjson") || contentType.startsWith("application/ndjson")) {
+                format = UserImportService.Format.NDJSON;
+            } else {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Content-Type must be text/csv or application/x-ndjson");
+                return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(error);
+            }
+
+            UserImportReport report = userImportService.importUsers(request.getInputStream(), format);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Import failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Avatar URLs for a roster in one call
+    // GET /users/avatars?ids=12,15,40&size=32
+    // Response: { "12": "/users/12/avatar?size=32&v=3f2a9c01d4e7", "15": null, ... }
+    // Names/pictures come from the user summary cache (one IN query for misses); the v= token
+    // changes with the picture, so a new upload never shows a stale cached avatar.
+    @GetMapping("/avatars")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getAvatarUrls(
+            @RequestParam List<Long> ids,
+            @RequestParam(defaultValue = "64") int size) {
+        try {
+            if (ids.size() > MAX_AVATAR_IDS) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "At most " + MAX_AVATAR_IDS + " ids per request");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+
+            int variant = ProfilePictureService.thumbnailSizeFor(size);
+            Map<Long, UserSummary> users = userService.getUserSummaries(ids);
+            Map<Long, String> urls = new LinkedHashMap<>();
+            for (Long id : ids) {
+                UserSummary user = users.get(id);
+                String profilePicture = user != null ? user.profilePicture() : null;
+                urls.put(id, profilePicture == null || profilePicture.isEmpty()
+                        ? null
+                        : "/users/" + id + "/avatar?size=" + variant + "&v=" + ProfilePictureService.versionOf(profilePicture));
+            }
+            return ResponseEntity.ok(urls);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to fetch avatars: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // ✅ Any user's avatar as a square thumbnail (32/64/256, the next size up is served)
+    // GET /users/{id}/avatar?size=64 - 304 on revalidation without touching the disk
+    @GetMapping("/{id}/avatar")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getAvatar(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "64") int size,
+            @RequestHeader HttpHeaders requestHeaders,
+            WebRequest webRequest) {
+        try {
+            UserSummary user = userService.getUserSummaries(List.of(id)).get(id);
+            if (user == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "User not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+            return profilePictureService.serve(user.profilePicture(), size, requestHeaders, webRequest);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Failed to get avatar: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.util.List;
+
+// ✅ Result of a bulk user import: totals plus one entry per input row
+public record UserImportReport(int total, int created, int skipped, int failed, List<RowResult> rows) {
+
+    public enum Status { CREATED, SKIPPED_EXISTS, INVALID, FAILED }
+
+    // line is the 1-based line number in the uploaded file
+    public record RowResult(int line, String username, Status status, String message) {
+    }
+}
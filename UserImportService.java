@@ -0,0 +1,302 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.dto.UserImportReport;
+import com.elearnhub.teacher_service.dto.UserImportReport.RowResult;
+import com.elearnhub.teacher_service.dto.UserImportReport.Status;
+import com.elearnhub.teacher_service.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+// ✅ Bulk user provisioning (term start: a whole school at once)
+// The upload is read line by line and processed in batches:
+//   1. validate + de-duplicate rows
+//   2. one set-based query for username collisions
+//   3. BCrypt hashing in parallel on a dedicated ForkJoinPool
+//   4. JDBC batch insert, all-or-nothing per batch (its own transaction)
+// Rows, passwords and hashes are held one batch at a time; what grows with the file is the report
+// (one RowResult per row) and the set of usernames seen so far, both small per row.
+@Service
+public class UserImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user (username, password, email, name, role) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @Value("${user.import.batch-size:1000}")
+    private int batchSize;
+
+    // 0 = all available cores
+    @Value("${user.import.hashing-parallelism:0}")
+    private int hashingParallelism;
+
+    // Separate from the login hashing pool so an import never delays interactive logins
+    private ForkJoinPool hashingPool;
+
+    // A failed batch must leave no rows behind before the row-by-row retry
+    private TransactionTemplate batchTransaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        batchTransaction = new TransactionTemplate(transactionManager);
+        batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void init() {
+        hashingPool = new ForkJoinPool(hashingParallelism > 0
+                ? hashingParallelism
+                : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    public UserImportReport importUsers(InputStream input, Format format) throws IOException {
+        List<RowResult> results = new ArrayList<>();
+        Set<String> seenUsernames = new HashSet<>(); // Duplicates inside the same file
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String[] csvHeader = null;
+            String line;
+            int lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && csvHeader == null) {
+                    csvHeader = parseCsvLine(line).toArray(new String[0]);
+                    continue;
+                }
+
+                ImportRow row;
+                try {
+                    row = format == Format.CSV
+                            ? ImportRow.fromCsv(lineNumber, csvHeader, parseCsvLine(line))
+                            : ImportRow.fromJson(lineNumber, objectMapper.readTree(line));
+                } catch (Exception e) {
+                    results.add(new RowResult(lineNumber, null, Status.INVALID, "Unparseable row: " + e.getMessage()));
+                    continue;
+                }
+
+                String validationError = row.validate();
+                if (validationError != null) {
+                    results.add(new RowResult(lineNumber, row.username, Status.INVALID, validationError));
+                    continue;
+                }
+                if (!seenUsernames.add(UsernameBloomFilter.normalize(row.username))) {
+                    results.add(new RowResult(lineNumber, row.username, Status.SKIPPED_EXISTS, "Duplicate username in file"));
+                    continue;
+                }
+
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    results.addAll(processBatch(batch));
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            results.addAll(processBatch(batch));
+        }
+
+        int created = 0, skipped = 0, failed = 0;
+        for (RowResult result : results) {
+            switch (result.status()) {
+                case CREATED -> created++;
+                case SKIPPED_EXISTS -> skipped++;
+                default -> failed++;
+            }
+        }
+        results.sort((a, b) -> Integer.compare(a.line(), b.line()));
+        return new UserImportReport(results.size(), created, skipped, failed, results);
+    }
+
+    private List<RowResult> processBatch(List<ImportRow> batch) {
+        List<RowResult> results = new ArrayList<>(batch.size());
+
+        // One query for all collisions in this batch
+        // The IN match follows the column collation, so compare the returned names the same way
+        Set<String> existing = userRepository.findExistingUsernames(
+                        batch.stream().map(row -> row.username).collect(Collectors.toList()))
+                .stream().map(UsernameBloomFilter::normalize).collect(Collectors.toSet());
+
+        List<ImportRow> toInsert = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            if (existing.contains(UsernameBloomFilter.normalize(row.username))) {
+                results.add(new RowResult(row.line, row.username, Status.SKIPPED_EXISTS, "Username already exists"));
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return results;
+        }
+
+        // BCrypt is the expensive part - spread it over all cores
+        List<String> hashes = hashingPool.submit(() -> toInsert.parallelStream()
+                .map(row -> passwordEncoder.encode(row.password))
+                .collect(Collectors.toList())).join();
+
+        List<Object[]> args = new ArrayList<>(toInsert.size());
+        for (int i = 0; i < toInsert.size(); i++) {
+            ImportRow row = toInsert.get(i);
+            args.add(new Object[]{row.username, hashes.get(i), row.email, row.name, row.role});
+        }
+
+        try {
+            // Without the transaction the rows before a failing one stay committed (autocommit)
+            // and the retry below would report them as FAILED duplicates of themselves
+            batchTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+            for (ImportRow row : toInsert) {
+                usernameBloomFilter.put(row.username);
+                results.add(new RowResult(row.line, row.username, Status.CREATED, null));
+            }
+        } catch (DataAccessException batchFailure) {
+            // A row collided with a concurrent signup (or violates a constraint) - retry one by one
+            // so the rest of the batch still goes in and each row gets its own result.
+            for (int i = 0; i < toInsert.size(); i++) {
+                ImportRow row = toInsert.get(i);
+                try {
+                    jdbcTemplate.update(INSERT_SQL, args.get(i));
+                    usernameBloomFilter.put(row.username);
+                    results.add(new RowResult(row.line, row.username, Status.CREATED, null));
+                } catch (DuplicateKeyException e) {
+                    // Created meanwhile by a signup or another import
+                    results.add(new RowResult(row.line, row.username, Status.SKIPPED_EXISTS, "Username already exists"));
+                } catch (DataAccessException e) {
+                    results.add(new RowResult(row.line, row.username, Status.FAILED, e.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    // Minimal RFC 4180 line parser: commas, double-quoted fields, "" as an escaped quote
+    private List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    inQuotes = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    // One input row: username, password, email, name, role (STUDENT if missing)
+    private static class ImportRow {
+        int line;
+        String username;
+        String password;
+        String email;
+        String name;
+        String role;
+
+        static ImportRow fromCsv(int line, String[] header, List<String> values) {
+            ImportRow row = new ImportRow();
+            row.line = line;
+            for (int i = 0; i < header.length && i < values.size(); i++) {
+                row.set(header[i], values.get(i));
+            }
+            return row;
+        }
+
+        static ImportRow fromJson(int line, JsonNode node) {
+            ImportRow row = new ImportRow();
+            row.line = line;
+            node.fields().forEachRemaining(field -> row.set(field.getKey(), field.getValue().asText(null)));
+            return row;
+        }
+
+        private void set(String column, String value) {
+            String v = value != null && !value.isBlank() ? value.trim() : null;
+            switch (column.trim().toLowerCase()) {
+                case "username" -> username = v;
+                case "password" -> password = v;
+                case "email" -> email = v;
+                case "name" -> name = v;
+                case "role" -> role = v != null ? v.toUpperCase() : null;
+                default -> { } // Ignore unknown columns
+            }
+        }
+
+        String validate() {
+            if (username == null) {
+                return "Username is required";
+            }
+            if (password == null) {
+                return "Password is required";
+            }
+            if (role == null) {
+                role = "STUDENT";
+            }
+            if (!"STUDENT".equals(role) && !"TEACHER".equals(role)) {
+                return "Role must be STUDENT or TEACHER";
+            }
+            return null;
+        }
+    }
+}
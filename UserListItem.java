@@ -0,0 +1,13 @@
+package com.elearnhub.teacher_service.dto;
+
+// ✅ Spring Data interface projection for user listings
+// Only these four columns are selected - no password hash, no profile fields, no entity hydration.
+public interface UserListItem {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getRole();
+}
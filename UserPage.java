@@ -0,0 +1,8 @@
+package com.elearnhub.teacher_service.dto;
+
+import java.util.List;
+
+// ✅ One page of a keyset-paginated user listing
+// nextCursor is the id to pass as "after" for the next page (null on the last page).
+public record UserPage(List<UserListItem> items, Long nextCursor) {
+}
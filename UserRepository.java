@@ -0,0 +1,47 @@
+package com.elearnhub.teacher_service.repository;
+
+import com.elearnhub.teacher_service.dto.UserListItem;
+import com.elearnhub.teacher_service.dto.UserSummary;
+import com.elearnhub.teacher_service.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public interface UserRepository extends JpaRepository<User, Long> {
+    Optional<User> findByUsername(String username);
+
+    boolean existsByUsername(String username);
+
+    // ✅ Batch lookup for display data only (no password hash, one IN query)
+    @Query("SELECT new com.elearnhub.teacher_service.dto.UserSummary(u.id, u.name, u.username, u.profilePicture) " +
+           "FROM User u WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ✅ Keyset pagination: rows after the given id, ordered by id, optionally filtered by
+    // role and username prefix. Pass PageRequest.of(0, size) to limit - never uses OFFSET.
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.role AS role FROM User u " +
+           "WHERE u.id > :afterId " +
+           "AND (:role IS NULL OR u.role = :role) " +
+           "AND (:usernamePrefix IS NULL OR u.username LIKE CONCAT(:usernamePrefix, '%') ESCAPE '!') " +
+           "ORDER BY u.id")
+    List<UserListItem> findPageAfter(@Param("afterId") Long afterId,
+                                     @Param("role") String role,
+                                     @Param("usernamePrefix") String usernamePrefix,
+                                     Pageable pageable);
+
+    // ✅ Set-based collision check for bulk imports (one query per batch)
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    // ✅ Which of the given ids are existing students (bulk enrollment validation)
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.role = 'STUDENT'")
+    Set<Long> findStudentIdsIn(@Param("ids") Collection<Long> ids);
+}
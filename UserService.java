@@ -1,10 +1,15 @@
 package com.elearnhub.teacher_service.service;
 
 import com.elearnhub.teacher_service.dto.UserDTO;
+import com.elearnhub.teacher_service.dto.UserListItem;
+import com.elearnhub.teacher_service.dto.UserPage;
+import com.elearnhub.teacher_service.dto.UserSummary;
 import com.elearnhub.teacher_service.entity.User;
 import com.elearnhub.teacher_service.repository.UserRepository;
+import com.elearnhub.teacher_service.security.AuthenticatedUser;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,9 +17,13 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,16 +36,25 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
+    @Autowired
+    private UsernameBloomFilter usernameBloomFilter;
+
     public User createUser(User user) {
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
+        if (existsByUsername(user.getUsername())) {
             throw new RuntimeException("Username already exists: " + user.getUsername());
         }
         
         // ❌ REMOVE THIS LINE - Password is already encoded in AuthController!
         // user.setPassword(passwordEncoder.encode(user.getPassword()));
         
-        // ✅ Password is already encoded, just save it as-is
-        User savedUser = userRepository.save(user);
+        // ✅ Password is already encoded, just save it as-is.
+        // Flushed here so a duplicate from another node (uk_user_username) surfaces as
+        // DataIntegrityViolationException from this call - callers answer it with 409
+        User savedUser = userRepository.saveAndFlush(user);
+        usernameBloomFilter.put(savedUser.getUsername());
         System.out.println("✅ User saved with ID: " + savedUser.getId() + " Role: " + savedUser.getRole());
         return savedUser;
     }
@@ -45,6 +63,25 @@ public class UserService implements UserDetailsService {
         return userRepository.findById(id);
     }
 
+    // ✅ Batch lookup of display data (name, username, profile picture) keyed by user id.
+    // Served from UserSummaryCache; all misses are loaded with a single IN query.
+    public Map<Long, UserSummary> getUserSummaries(Collection<Long> ids) {
+        Set<Long> uniqueIds = new HashSet<>(ids);
+        uniqueIds.remove(null);
+        return userSummaryCache.getAll(uniqueIds, missing -> userRepository.findSummariesByIdIn(missing).stream()
+                .collect(Collectors.toMap(UserSummary::id, summary -> summary)));
+    }
+
+    // ✅ Proxy for the authenticated user when an entity only needs the foreign key
+    // (e.g. new ClassEntity(name, teacher, course)) - does not hit the database
+    public User getUserReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // ⚠️ Loads every User entity (including password hash) - use listUsers() for listings
+    @Deprecated
     public List<UserDTO> getAllUsers() {
         List<User> users = userRepository.findAll();
         return users.stream()
@@ -57,6 +94,31 @@ public class UserService implements UserDetailsService {
                 .collect(Collectors.toList());
     }
 
+    // ✅ Keyset-paginated listing backed by the UserListItem projection.
+    // Memory per call is bounded by the page size, regardless of how many users exist.
+    public UserPage listUsers(Long afterId, String role, String usernamePrefix, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String prefix = usernamePrefix != null && !usernamePrefix.trim().isEmpty()
+                ? escapeLike(usernamePrefix.trim())
+                : null;
+        String roleFilter = role != null && !role.trim().isEmpty() ? role.trim().toUpperCase() : null;
+
+        // Fetch one extra row to know whether another page exists
+        List<UserListItem> rows = userRepository.findPageAfter(
+                afterId != null ? afterId : 0L, roleFilter, prefix, PageRequest.of(0, pageSize + 1));
+
+        if (rows.size() > pageSize) {
+            List<UserListItem> items = rows.subList(0, pageSize);
+            return new UserPage(items, items.get(pageSize - 1).getId());
+        }
+        return new UserPage(rows, null);
+    }
+
+    // Escape LIKE wildcards so a prefix search matches literally (escape char is '!')
+    private String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
     public User updateUser(Long id, User user) {
         Optional<User> existingUser = userRepository.findById(id);
         if (existingUser.isPresent()) {
@@ -82,33 +144,31 @@ public class UserService implements UserDetailsService {
             updatedUser.setUsername(originalUsername);
             updatedUser.setRole(originalRole);
             
-            return userRepository.save(updatedUser);
+            User savedUser = userRepository.save(updatedUser);
+            userSummaryCache.invalidate(id);
+            return savedUser;
         }
         throw new RuntimeException("User not found with id: " + id);
     }
 
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        userSummaryCache.invalidate(id);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Only called by /auth/login - authenticated requests are verified from the token (JwtUtil)
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        
-        // Debug: Log password format to verify encoding
-        String passwordPrefix = user.getPassword() != null && user.getPassword().length() > 10
-            ? user.getPassword().substring(0, Math.min(30, user.getPassword().length()))
-            : "null or too short";
-        
-        System.out.println("🔍 Authenticated user: " + user.getUsername() + " | Role: " + user.getRole());
-        System.out.println("🔐 Password prefix in DB: " + passwordPrefix + "...");
-        System.out.println("🔐 Password length: " + (user.getPassword() != null ? user.getPassword().length() : 0));
-        System.out.println("🔐 Is BCrypt format: " + (user.getPassword() != null && user.getPassword().startsWith("$2")));
-        
-        return new org.springframework.security.core.userdetails.User(
+
+        // ✅ Build the principal once here - controllers read id/role/name from it
+        return new AuthenticatedUser(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
+                user.getRole(),
+                user.getName(),
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
         );
     }
@@ -128,8 +188,16 @@ public class UserService implements UserDetailsService {
         return true;
     }
     
+    // ✅ Definite negatives from the Bloom filter never reach the database
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+        if (!usernameBloomFilter.mightContain(username)) {
+            return false;
+        }
+        boolean exists = userRepository.existsByUsername(username);
+        if (!exists) {
+            usernameBloomFilter.recordFalsePositive();
+        }
+        return exists;
     }
     
     // ✅ Add this method - used by CourseController to get User from username
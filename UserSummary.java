@@ -0,0 +1,10 @@
+package com.elearnhub.teacher_service.dto;
+
+// ✅ Lightweight, immutable view of a user for filling in teacher/student names
+public record UserSummary(Long id, String name, String username, String profilePicture) {
+
+    // Use name if available, otherwise username
+    public String displayName() {
+        return name != null && !name.trim().isEmpty() ? name : username;
+    }
+}
@@ -0,0 +1,39 @@
+package com.elearnhub.teacher_service.service;
+
+import com.elearnhub.teacher_service.dto.UserSummary;
+import com.elearnhub.teacher_service.util.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// ✅ Bounded id -> UserSummary cache shared by all controllers.
+// Least recently used entries are evicted once max-size is reached. Changes on this node
+// invalidate at once; entries also expire after ttl-seconds, which bounds how long a change
+// made on another node (name, picture) goes unseen. Keep the TTL below
+// file.blob-gc-grace-minutes: a stale profilePicture then still points at a blob that exists.
+@Component
+public class UserSummaryCache {
+
+    private final BoundedTtlCache<Long, UserSummary> cache;
+
+    public UserSummaryCache(@Value("${user.summary-cache.max-size:10000}") int maxSize,
+                            @Value("${user.summary-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = new BoundedTtlCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    // Cached summaries for the given ids; all misses are passed to the loader at once
+    // (ids it does not return - unknown users - are simply absent)
+    public Map<Long, UserSummary> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, UserSummary>> loader) {
+        return cache.getAll(ids, loader);
+    }
+
+    // Call whenever name, username or profile picture changes
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+}
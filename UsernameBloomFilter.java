@@ -0,0 +1,170 @@
+package com.elearnhub.teacher_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// ✅ In-memory Bloom filter of all usernames.
+// mightContain() == false means the username is definitely free, so signup checks skip the DB.
+// A true answer may be a false positive and must be confirmed with the real query.
+// Usernames are hashed in normalize()d form: user.username has a case- and accent-insensitive
+// collation, so "Alice", "alice " and "alicé" must land on the same bits.
+// Usernames are never removed (deleted users just become false positives) and other nodes'
+// signups are not seen here - the unique index uk_user_username (USERNAME_UNIQUE_INDEX.sql)
+// stays the final check, and a violation is answered with 409 like any other duplicate.
+@Component
+public class UsernameBloomFilter {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user.username-bloom.expected-insertions:200000}")
+    private long expectedInsertions;
+
+    @Value("${user.username-bloom.false-positive-rate:0.01}")
+    private double targetFalsePositiveRate;
+
+    private AtomicLongArray bits;
+    private long bitCount;
+    private int hashFunctions;
+    // Until the startup load finishes every lookup is treated as a possible hit
+    private volatile boolean ready;
+
+    private Counter definiteNegatives;
+    private Counter possibleHits;
+    private Counter falsePositives;
+
+    @PostConstruct
+    void init() {
+        // Standard sizing: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long n = Math.max(1, expectedInsertions);
+        bitCount = Math.max(64, (long) Math.ceil(-n * Math.log(targetFalsePositiveRate) / (Math.log(2) * Math.log(2))));
+        hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+
+        definiteNegatives = Counter.builder("user.username-bloom.checks")
+                .tag("result", "negative")
+                .register(meterRegistry);
+        possibleHits = Counter.builder("user.username-bloom.checks")
+                .tag("result", "possible")
+                .register(meterRegistry);
+        falsePositives = Counter.builder("user.username-bloom.false-positives")
+                .description("Possible hits that the database reported as free")
+                .register(meterRegistry);
+        Gauge.builder("user.username-bloom.expected-fpp", this, UsernameBloomFilter::expectedFalsePositiveRate)
+                .description("False-positive probability implied by the current fill ratio")
+                .register(meterRegistry);
+    }
+
+    // Stream all usernames once at startup (no entities, constant memory)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(1000);
+        streaming.query("SELECT username FROM user", rs -> {
+            put(rs.getString(1));
+        });
+        ready = true;
+    }
+
+    public boolean mightContain(String username) {
+        if (!ready || username == null) {
+            return true;
+        }
+        long hash = hash64(normalize(username));
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            if (!isSet(index(h1 + i * h2))) {
+                definiteNegatives.increment();
+                return false;
+            }
+        }
+        possibleHits.increment();
+        return true;
+    }
+
+    public void put(String username) {
+        if (username == null) {
+            return;
+        }
+        long hash = hash64(normalize(username));
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            set(index(h1 + i * h2));
+        }
+    }
+
+    // ✅ The key two usernames collide on in MySQL (utf8mb4 *_ai_ci): trimmed, lower case, accents
+    // stripped. Folding more than the collation does only adds false positives, never misses.
+    public static String normalize(String username) {
+        String decomposed = Normalizer.normalize(username.trim(), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+
+    // Called when mightContain() said "maybe" but the database said "no"
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    // (fraction of bits set)^k
+    public double expectedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) set / bitCount, hashFunctions);
+    }
+
+    private long index(int combinedHash) {
+        // Maps g_i = h1 + i*h2 (Kirsch-Mitzenmacher double hashing) onto the bit array
+        return (combinedHash & Integer.MAX_VALUE) % bitCount;
+    }
+
+    private boolean isSet(long bitIndex) {
+        return (bits.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) != 0;
+    }
+
+    private void set(long bitIndex) {
+        int word = (int) (bitIndex >>> 6);
+        long mask = 1L << bitIndex;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    // FNV-1a over the UTF-8 bytes followed by a murmur3 finalizer to spread the bits
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
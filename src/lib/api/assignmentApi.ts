@@ -1,4 +1,4 @@
-import { apiClient } from './client';
+import { apiClient, ApiResponse } from './client';
 import { API_ENDPOINTS } from './config';
 
 export interface AssignmentDTO {
@@ -76,6 +76,14 @@ export const assignmentApi = {
     return apiClient.get<SubmissionDTO[]>(`${API_ENDPOINTS.ASSIGNMENTS}/${assignmentId}/submissions`);
   },
 
+  // Download every submission of an assignment as one ZIP (generated by the server on the fly)
+  downloadSubmissionsArchive: async (assignmentId: number) => {
+    return apiClient.downloadFile(
+      `${API_ENDPOINTS.ASSIGNMENTS}/${assignmentId}/submissions/archive`,
+      `assignment-${assignmentId}-submissions.zip`
+    );
+  },
+
   // Grade a submission
   gradeSubmission: async (submissionId: number, data: GradeSubmissionRequest) => {
     return apiClient.put<SubmissionDTO>(`${API_ENDPOINTS.ASSIGNMENTS}/submissions/${submissionId}/grade`, data);
@@ -87,29 +95,31 @@ export const assignmentApi = {
   },
 
   // ✅ NEW: Submit assignment (for students) - supports file uploads
-  submitAssignment: async (assignmentId: number, content?: string, files?: File[]) => {
-    // If files are provided, use multipart/form-data
-    if (files && files.length > 0) {
-      const formData = new FormData();
-      formData.append('assignmentId', assignmentId.toString());
-      if (content) {
-        formData.append('content', content);
+  submitAssignment: async (
+    assignmentId: number,
+    content?: string,
+    files?: File[]
+  ): Promise<ApiResponse<SubmissionDTO>> => {
+    // The text answer always goes as JSON (never in the upload URL, which has a size limit
+    // and ends up in access logs); this also replaces a file from an earlier submission
+    if (content) {
+      const data: SubmitAssignmentRequest = { assignmentId, content };
+      const saved = await apiClient.post<SubmissionDTO>(`${API_ENDPOINTS.ASSIGNMENTS}/submissions`, data);
+      if (!saved.success || !files || files.length === 0) {
+        return saved;
       }
-      
-      // Append all files
-      files.forEach((file) => {
-        formData.append('files', file);
-      });
-      
-      return apiClient.uploadFile<SubmissionDTO>(`${API_ENDPOINTS.ASSIGNMENTS}/submissions`, formData);
-    } else {
-      // No files, use JSON request
-      const data: SubmitAssignmentRequest = {
-        assignmentId,
-        content: content || undefined,
-      };
-      return apiClient.post<SubmissionDTO>(`${API_ENDPOINTS.ASSIGNMENTS}/submissions`, data);
     }
+
+    // Then stream the file as the raw request body (a submission holds one file)
+    if (files && files.length > 0) {
+      const file = files[0];
+      const params = new URLSearchParams({ filename: file.name });
+      return apiClient.putFile<SubmissionDTO>(
+        `${API_ENDPOINTS.ASSIGNMENTS}/${assignmentId}/submission/file?${params.toString()}`,
+        file
+      );
+    }
+    return { success: false, error: 'Add an answer or a file to submit' };
   },
 };
 
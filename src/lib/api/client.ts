@@ -94,6 +94,20 @@ class ApiClient {
     return this.request<T>(endpoint, { ...options, method: 'DELETE' });
   }
 
+  // ✅ Raw file upload: the file itself is the request body (no multipart encoding),
+  // so the server can stream it straight to storage
+  async putFile<T>(endpoint: string, file: Blob, options?: RequestInit): Promise<ApiResponse<T>> {
+    return this.request<T>(endpoint, {
+      ...options,
+      method: 'PUT',
+      headers: {
+        'Content-Type': file.type || 'application/octet-stream',
+        ...options?.headers,
+      },
+      body: file,
+    });
+  }
+
   // ✅ File upload method for multipart/form-data
   async uploadFile<T>(
     endpoint: string,
@@ -8,6 +8,7 @@ export const API_ENDPOINTS = {
   // Teacher endpoints
   TEACHER_PROFILE: '/teacher/profile',
   TEACHER_DASHBOARD: '/teacher/dashboard',
+  TEACHER_REVIEW_QUEUE: '/teacher/review-queue', // Ungraded submissions, oldest first
   TEACHER_CLASSES: '/courses', // Backend endpoint for courses
   LESSONS: '/lessons', // Backend endpoint for lessons/notes
   ASSIGNMENTS: '/assignments', // Backend endpoint for assignments
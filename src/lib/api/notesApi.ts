@@ -26,9 +26,80 @@ export interface LessonDTO {
   classId?: number;
 }
 
+export interface LessonUploadStatus {
+  uploadId: string;
+  fileName: string;
+  size: number;
+  offset: number;
+  chunkSize: number;
+  lessonId?: number | null;
+  expiresAt: string;
+}
+
+// Files above this go through the chunked upload session API (resumable, short requests)
+const CHUNKED_UPLOAD_THRESHOLD = 16 * 1024 * 1024;
+const MAX_CHUNK_ATTEMPTS = 5;
+
+const sha256Hex = async (data: Blob) => {
+  const digest = await crypto.subtle.digest('SHA-256', await data.arrayBuffer());
+  return Array.from(new Uint8Array(digest), (b) => b.toString(16).padStart(2, '0')).join('');
+};
+
+const wait = (ms: number) => new Promise((resolve) => setTimeout(resolve, ms));
+
+// ✅ Chunked upload: each chunk is retried on its own; after a failure the server's
+// committed offset says where to continue, so a network blip never restarts the file
+const uploadLessonInChunks = async (data: UploadLessonRequest) => {
+  const created = await apiClient.post<LessonUploadStatus>(`${API_ENDPOINTS.LESSONS}/uploads`, {
+    classId: data.classId,
+    title: data.title,
+    fileName: data.file.name,
+    size: data.file.size,
+  });
+  if (!created.success || !created.data) {
+    return { success: false, error: created.error, message: created.message };
+  }
+
+  const { uploadId, chunkSize } = created.data;
+  const uploadUrl = `${API_ENDPOINTS.LESSONS}/uploads/${uploadId}`;
+  let offset = created.data.offset;
+  let attempts = 0;
+
+  while (offset < data.file.size) {
+    const chunk = data.file.slice(offset, Math.min(offset + chunkSize, data.file.size));
+    const response = await apiClient.putFile<LessonUploadStatus>(`${uploadUrl}?offset=${offset}`, chunk, {
+      headers: {
+        'Content-Type': 'application/octet-stream',
+        'X-Chunk-SHA256': await sha256Hex(chunk),
+      },
+    });
+    if (response.success && response.data) {
+      offset = response.data.offset;
+      attempts = 0;
+      continue;
+    }
+
+    if (++attempts >= MAX_CHUNK_ATTEMPTS) {
+      return { success: false, error: response.error, message: response.message };
+    }
+    await wait(1000 * attempts);
+    // Resume from what the server actually committed
+    const status = await apiClient.get<LessonUploadStatus>(uploadUrl);
+    if (status.success && status.data) {
+      offset = status.data.offset;
+    }
+  }
+
+  return apiClient.post<LessonDTO>(`${uploadUrl}/complete`);
+};
+
 export const notesApi = {
   // Upload a lesson/note with file
   uploadLesson: async (data: UploadLessonRequest) => {
+    if (data.file.size > CHUNKED_UPLOAD_THRESHOLD) {
+      return uploadLessonInChunks(data);
+    }
+
     const formData = new FormData();
     formData.append('classId', data.classId.toString());
     formData.append('title', data.title);
@@ -31,6 +31,23 @@ export interface RegisterResponse {
   token?: string;
 }
 
+export interface ReviewQueueItem {
+  submissionId: number;
+  assignmentId: number;
+  assignmentTitle: string;
+  courseId: number;
+  className: string;
+  studentId: number;
+  studentName: string;
+  submittedAt: string;
+}
+
+export interface ReviewQueuePage {
+  items: ReviewQueueItem[];
+  total: number; // All ungraded submissions, not just this page
+  nextCursor: { submittedAt: string; id: number } | null;
+}
+
 export const teacherApi = {
   // Login - matches backend: POST /auth/login with { username, password }
   login: async (credentials: LoginRequest) => {
@@ -64,6 +81,16 @@ export const teacherApi = {
     return apiClient.uploadFile<Teacher>(`${API_ENDPOINTS.TEACHER_PROFILE}/picture`, formData);
   },
 
+  // Ungraded submissions across all classes (keyset-paginated, pass nextCursor for more)
+  getReviewQueue: async (limit = 20, after?: ReviewQueuePage['nextCursor']) => {
+    const params = new URLSearchParams({ limit: String(limit) });
+    if (after) {
+      params.append('afterSubmittedAt', after.submittedAt);
+      params.append('afterId', String(after.id));
+    }
+    return apiClient.get<ReviewQueuePage>(`${API_ENDPOINTS.TEACHER_REVIEW_QUEUE}?${params.toString()}`);
+  },
+
   // Get teacher dashboard data (if available)
   getDashboard: async () => {
     return apiClient.get(API_ENDPOINTS.TEACHER_DASHBOARD);
@@ -78,15 +78,9 @@ const Assignments = () => {
 
   const handleFileChange = (e: React.ChangeEvent<HTMLInputElement>) => {
     const files = e.target.files;
-    if (files) {
-      const fileArray = Array.from(files);
-      // Limit to 10 files
-      if (fileArray.length > 10) {
-        toast.error("Maximum 10 files allowed");
-        setSubmissionFiles(fileArray.slice(0, 10));
-      } else {
-        setSubmissionFiles(fileArray);
-      }
+    // A submission holds one file (it is streamed as the request body)
+    if (files && files.length > 0) {
+      setSubmissionFiles([files[0]]);
     }
   };
 
@@ -102,7 +96,7 @@ const Assignments = () => {
     }
 
     if (!submissionContent.trim() && submissionFiles.length === 0) {
-      toast.error("Please enter submission content or attach files");
+      toast.error("Please enter submission content or attach a file");
       return;
     }
 
@@ -291,28 +285,27 @@ const Assignments = () => {
                         disabled={isSubmitting}
                       />
                       <p className="text-xs text-muted-foreground">
-                        You can enter text content and/or attach files
+                        You can enter text content and/or attach a file
                       </p>
                     </div>
 
                     <div className="space-y-2">
-                      <Label htmlFor="submissionFiles">Attach Files (Optional)</Label>
+                      <Label htmlFor="submissionFiles">Attach File (Optional)</Label>
                       <input
                         id="submissionFiles"
                         type="file"
-                        multiple
                         accept=".pdf,.doc,.docx,.txt,.ppt,.pptx,.jpg,.jpeg,.png"
                         onChange={handleFileChange}
                         disabled={isSubmitting}
                         className="block w-full text-sm text-muted-foreground file:mr-4 file:py-2 file:px-4 file:rounded-md file:border-0 file:text-sm file:font-semibold file:bg-primary file:text-primary-foreground hover:file:bg-primary/90"
                       />
                       <p className="text-xs text-muted-foreground">
-                        Accepted formats: PDF, DOC, DOCX, TXT, PPT, PPTX, JPG, PNG (Max 10 files)
+                        Accepted formats: PDF, DOC, DOCX, TXT, PPT, PPTX, JPG, PNG (one file)
                       </p>
                       
                       {submissionFiles.length > 0 && (
                         <div className="mt-2 space-y-2">
-                          <p className="text-sm font-medium">Selected files:</p>
+                          <p className="text-sm font-medium">Selected file:</p>
                           <div className="space-y-1">
                             {submissionFiles.map((file, index) => (
                               <div key={index} className="flex items-center justify-between p-2 bg-secondary rounded text-sm">
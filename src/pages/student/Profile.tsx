@@ -103,13 +103,14 @@ const Profile = () => {
           return;
         }
 
-        // Add timestamp to prevent caching issues
-        const timestamp = Date.now();
-        const response = await fetch(`${apiBase}/student/profile/picture?t=${timestamp}`, {
+        // Version the URL by the stored path: a new upload is a new URL, otherwise the
+        // browser reuses its copy and revalidates with If-None-Match (304, no image bytes).
+        // size=256 is the square thumbnail (the 96px avatar at 2x), not the original upload
+        const version = encodeURIComponent(picturePath);
+        const response = await fetch(`${apiBase}/student/profile/picture?size=256&v=${version}`, {
           headers: {
             'Authorization': `Bearer ${token}`,
           },
-          cache: 'no-store',
         });
 
         // Check if response is OK and content type is an image
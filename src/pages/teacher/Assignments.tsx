@@ -1,5 +1,5 @@
 import { useState, useEffect } from "react";
-import { BookOpen, Users, FileText, Plus, Calendar, FileCheck, Eye, ListChecks, Trash2 } from "lucide-react";
+import { BookOpen, Users, FileText, Plus, Calendar, FileCheck, Eye, ListChecks, Trash2, Download } from "lucide-react";
 import Sidebar from "@/components/Sidebar";
 import { Card } from "@/components/ui/card";
 import { Button } from "@/components/ui/button";
@@ -195,6 +195,14 @@ const Assignments = () => {
     }
   };
 
+  const handleDownloadAllSubmissions = async () => {
+    if (!selectedAssignment?.id) return;
+    const response = await assignmentApi.downloadSubmissionsArchive(selectedAssignment.id);
+    if (!response.success) {
+      toast.error(response.error || "Failed to download submissions");
+    }
+  };
+
   const handleGradeClick = (submission: SubmissionDTO) => {
     setGradingSubmission(submission);
     setGradeForm({
@@ -584,10 +592,14 @@ const Assignments = () => {
                 </div>
               ) : (
                 <div className="space-y-4">
-                  <div className="mb-2">
+                  <div className="mb-2 flex items-center justify-between">
                     <p className="text-sm text-muted-foreground">
                       Showing {submissions.length} submission{submissions.length !== 1 ? 's' : ''} from database
                     </p>
+                    <Button variant="outline" size="sm" onClick={handleDownloadAllSubmissions}>
+                      <Download className="h-4 w-4 mr-2" />
+                      Download all
+                    </Button>
                   </div>
                   {submissions.map((submission) => (
                     <Card key={submission.id} className="p-4">
@@ -241,13 +241,14 @@ const Profile = () => {
           return;
         }
 
-        // Add timestamp to prevent caching issues
-        const timestamp = Date.now();
-        const response = await fetch(`${apiBase}/teacher/profile/picture?t=${timestamp}`, {
+        // Version the URL by the stored path: a new upload is a new URL, otherwise the
+        // browser reuses its copy and revalidates with If-None-Match (304, no image bytes).
+        // size=256 is the square thumbnail (the 96px avatar at 2x), not the original upload
+        const version = encodeURIComponent(picturePath);
+        const response = await fetch(`${apiBase}/teacher/profile/picture?size=256&v=${version}`, {
           headers: {
             'Authorization': `Bearer ${token}`,
           },
-          cache: 'no-store', // Prevent caching
         });
 
         if (response.ok && response.status === 200) {
@@ -7,7 +7,8 @@ import { Card } from "@/components/ui/card";
 import { Badge } from "@/components/ui/badge";
 import { useAuth } from "@/contexts/AuthContext";
 import { classApi, Class } from "@/lib/api/classApi";
-import { assignmentApi, AssignmentDTO } from "@/lib/api/assignmentApi";
+import { assignmentApi } from "@/lib/api/assignmentApi";
+import { teacherApi, ReviewQueueItem } from "@/lib/api/teacherApi";
 import { toast } from "sonner";
 
 const teacherNavItems = [
@@ -40,6 +41,7 @@ const TeacherDashboard = () => {
     submissions: number;
     total: number;
   }>>([]);
+  const [pendingReviews, setPendingReviews] = useState<ReviewQueueItem[]>([]);
   const [isLoading, setIsLoading] = useState(true);
 
   // Fetch real-time dashboard data
@@ -51,6 +53,9 @@ const TeacherDashboard = () => {
     try {
       setIsLoading(true);
       
+      // Review queue runs in parallel with the class/assignment requests
+      const reviewQueuePromise = teacherApi.getReviewQueue(3);
+
       // Fetch classes
       const classesResponse = await classApi.getClasses();
       let totalClasses = 0;
@@ -73,8 +78,7 @@ const TeacherDashboard = () => {
         }, 0);
       }
 
-      // Fetch all assignments and count pending ones
-      let pendingCount = 0;
+      // Collect assignments for the "Recent Assignments" list
       const assignmentsList: Array<{
         id: number;
         title: string;
@@ -101,8 +105,6 @@ const TeacherDashboard = () => {
                     dueDate: assignment.dueDate,
                     courseId: assignment.courseId,
                   });
-
-                  // Store assignment for later submission fetching
                 }
               }
             } catch (error) {
@@ -117,50 +119,36 @@ const TeacherDashboard = () => {
         .sort((a, b) => new Date(b.dueDate).getTime() - new Date(a.dueDate).getTime())
         .slice(0, 3);
 
-      // Create a map to store submissions data (avoid duplicate fetches)
-      const submissionsMap = new Map<number, any[]>();
-      
-      // Fetch submissions for ALL assignments to count pending (can be optimized later with backend aggregation)
-      const allSubmissionsPromises = assignmentsList.map(async (assignment) => {
+      // Submission counts are only needed for the 3 assignments shown
+      const assignmentsWithSubmissions = await Promise.all(sortedAssignments.map(async (assignment) => {
+        let submissionCount = 0;
         try {
           const submissionsResponse = await assignmentApi.getSubmissionsByAssignment(assignment.id);
           if (submissionsResponse.success && submissionsResponse.data) {
-            // Store in map for reuse
-            submissionsMap.set(assignment.id, submissionsResponse.data);
-            return submissionsResponse.data;
+            submissionCount = submissionsResponse.data.length;
           }
-          submissionsMap.set(assignment.id, []);
-          return [];
         } catch (error) {
           console.error(`Error fetching submissions for assignment ${assignment.id}:`, error);
-          submissionsMap.set(assignment.id, []);
-          return [];
         }
-      });
-
-      const allSubmissionsArrays = await Promise.all(allSubmissionsPromises);
-      
-      // Count all ungraded submissions across all assignments
-      allSubmissionsArrays.forEach((submissions) => {
-        const ungradedCount = submissions.filter(
-          (sub) => sub.grade === null || sub.grade === undefined
-        ).length;
-        pendingCount += ungradedCount;
-      });
-
-      // Use cached submission data for recent assignments (no duplicate API calls)
-      const assignmentsWithSubmissions = sortedAssignments.map((assignment) => {
-        const submissions = submissionsMap.get(assignment.id) || [];
         const classItem = classMap.get(assignment.classId);
         return {
           id: assignment.id,
           title: assignment.title,
           class: assignment.className,
           dueDate: new Date(assignment.dueDate).toLocaleDateString(),
-          submissions: submissions.length,
+          submissions: submissionCount,
           total: classItem?.students || 0,
         };
-      });
+      }));
+
+      // ✅ Pending = ungraded submissions, counted by the server in one indexed query
+      const reviewQueueResponse = await reviewQueuePromise;
+      const pendingCount = reviewQueueResponse.success && reviewQueueResponse.data
+        ? reviewQueueResponse.data.total
+        : 0;
+      setPendingReviews(reviewQueueResponse.success && reviewQueueResponse.data
+        ? reviewQueueResponse.data.items
+        : []);
 
       setStats({
         totalClasses,
@@ -224,18 +212,17 @@ const TeacherDashboard = () => {
                   <div className="flex items-center justify-center py-4">
                     <div className="animate-spin rounded-full h-6 w-6 border-b-2 border-primary"></div>
                   </div>
-                ) : recentAssignments.length > 0 ? (
-                  recentAssignments
-                    .filter((assignment) => assignment.submissions > 0)
-                    .slice(0, 3)
-                    .map((assignment, index) => (
-                      <div key={assignment.id || index} className="p-3 bg-secondary rounded-lg border border-border">
-                        <p className="text-sm text-foreground">
-                          {assignment.submissions} new submission{assignment.submissions !== 1 ? 's' : ''} for "{assignment.title}"
-                        </p>
-                        <p className="text-xs text-muted-foreground mt-1">Class: {assignment.class}</p>
-                      </div>
-                    ))
+                ) : pendingReviews.length > 0 ? (
+                  pendingReviews.map((item) => (
+                    <div key={item.submissionId} className="p-3 bg-secondary rounded-lg border border-border">
+                      <p className="text-sm text-foreground">
+                        {item.studentName} submitted "{item.assignmentTitle}" - awaiting review
+                      </p>
+                      <p className="text-xs text-muted-foreground mt-1">
+                        Class: {item.className} · {new Date(item.submittedAt).toLocaleString()}
+                      </p>
+                    </div>
+                  ))
                 ) : (
                   <div className="p-3 bg-secondary rounded-lg border border-border">
                     <p className="text-sm text-muted-foreground">No notifications at this time</p>